@@ -1,4 +1,5 @@
 import java.util.*;
+import java.util.function.LongBinaryOperator;
 
 /**
  * Special implementation of the disjoint set, allowing you to turn indexes on manually. The
@@ -7,12 +8,34 @@ import java.util.*;
  * tracking some count associated with the sets (normally used in conjunction with the
  * active feature).
  *
- * Edit the activate() and mergeCounts() functions to get the right counts when merging sets.
+ * By default, count[set] is the size of the set (activate() starts it at 1, and mergeCounts()
+ * adds two counts together). For anything else, add aggregate columns instead of editing
+ * those functions. Each one is a long[] (parallel to vals) with a merge operation and the
+ * value an index starts with when activated. union() merges every column into the new root in
+ * the same pass, and aggregate(col, set) reads a set's value straight out of the column. The
+ * merge must be associative and commutative. Examples:
+ * addAggregate(Long::sum, 1) - size
+ * addAggregate(Long::sum, 0) - sum (set each index's value with setAggregate() right after
+ * activating it, before it's unioned with anything)
+ * addAggregate(Math::min, Long.MAX_VALUE) - min
+ * addAggregate(Math::max, Long.MIN_VALUE) - max
+ *
+ * find() is iterative, with the path compression picked per instance (same as DisjointSet):
+ * FULL - Two passes: find the root, then point everything on the path at it (default).
+ * HALVING - One pass: point every other node on the path at its grandparent.
+ * SPLITTING - One pass: point every node on the path at its grandparent.
  *
  * Methods:
  * find(int i) - Returns the set id i is in, or -1 if it isn't active. Runs in amortized O(1).
  * union(int a, int b) - Unions index a and index b. Returns the id of the set they were
- * unioned into, or -1 if either a or b is inactive. Runs in amortized O(1).
+ * unioned into, or -1 if either a or b is inactive. Runs in amortized O(1) per column.
+ * addAggregate(merge, initial) - Adds an aggregate column, and returns its id. Indexes that
+ * are already active count as having the initial value. Runs in O(N).
+ * setAggregate(col, i, v) - Sets the value of i's whole set in column col to v (so if i was
+ * already unioned, the other members' values are lost). Throws if i isn't active. Runs in
+ * amortized O(1).
+ * aggregate(col, set) - Returns the value of a set (a set id from find() or union()) in
+ * column col. Runs in O(1).
  *
  * Memory: O(N)
  */
@@ -21,9 +44,24 @@ class ActiveDisjointSet {
     int size;
     int[] vals, count;
     boolean[] isActive;
+    Compression compression;
+    // Aggregate columns
+    int numColumns;
+    long[][] columns = new long[0][];
+    long[] initial = new long[0];
+    LongBinaryOperator[] merges = new LongBinaryOperator[0];
+
+    enum Compression {
+        FULL, HALVING, SPLITTING
+    }
 
     ActiveDisjointSet(int size) {
+        this(size, Compression.FULL);
+    }
+
+    ActiveDisjointSet(int size, Compression compression) {
         this.size = size;
+        this.compression = compression;
         vals = new int[size];
         Arrays.fill(vals, -1);
         count = new int[size];
@@ -35,6 +73,47 @@ class ActiveDisjointSet {
         isActive[i] = true;
 
         count[i] = 1;
+        for (int c = 0; c < numColumns; c++) columns[c][i] = initial[c];
+    }
+
+    int addAggregate(LongBinaryOperator merge, long initialValue) {
+        columns = Arrays.copyOf(columns, numColumns + 1);
+        initial = Arrays.copyOf(initial, numColumns + 1);
+        merges = Arrays.copyOf(merges, numColumns + 1);
+        long[] column = new long[size];
+        // Sets that already exist get the merge of initialValue over their members
+        for (int i = 0; i < size; i++) {
+            if (isActive[i] && vals[i] < 0) column[i] = initialValue;
+        }
+        for (int i = 0; i < size; i++) {
+            if (!isActive[i] || vals[i] < 0) continue;
+            int root = findRoot(i);
+            column[root] = merge.applyAsLong(column[root], initialValue);
+        }
+        columns[numColumns] = column;
+        initial[numColumns] = initialValue;
+        merges[numColumns] = merge;
+        return numColumns++;
+    }
+
+    void setAggregate(int col, int i, long v) {
+        int set = find(i);
+        if (set == -1) throw new IllegalArgumentException("Index " + i + " isn't active");
+        columns[col][set] = v;
+    }
+
+    long aggregate(int col, int set) {
+        return columns[col][set];
+    }
+
+    /**
+     * Merges every column of set b into set a.
+     */
+    void mergeColumns(int a, int b) {
+        for (int c = 0; c < numColumns; c++) {
+            long[] column = columns[c];
+            column[a] = merges[c].applyAsLong(column[a], column[b]);
+        }
     }
 
     int mergeCounts(int a, int b) {
@@ -48,14 +127,16 @@ class ActiveDisjointSet {
         if (setA == setB) return setA;
 
         if (vals[setA] < vals[setB]) {
-            count[setA] = mergeCounts(setA, setB);
+            count[setA] = mergeCounts(count[setA], count[setB]);
             count[setB] = 0;
+            mergeColumns(setA, setB);
             vals[setA] += vals[setB];
             vals[setB] = setA;
             return setA;
         } else {
-            count[setB] = mergeCounts(setB, setA);
+            count[setB] = mergeCounts(count[setB], count[setA]);
             count[setA] = 0;
+            mergeColumns(setB, setA);
             vals[setB] += vals[setA];
             vals[setA] = setB;
             return setB;
@@ -63,11 +144,34 @@ class ActiveDisjointSet {
     }
 
     int find(int i) {
-        if (vals[i] < 0) return (isActive[i] ? i : -1);
-        else {
-            int res = find(vals[i]);
-            vals[i] = res;
-            return res;
+        int root = findRoot(i);
+        return (isActive[root] ? root : -1);
+    }
+
+    private int findRoot(int i) {
+        switch (compression) {
+            case HALVING:
+                while (vals[i] >= 0) {
+                    if (vals[vals[i]] >= 0) vals[i] = vals[vals[i]];
+                    i = vals[i];
+                }
+                return i;
+            case SPLITTING:
+                while (vals[i] >= 0) {
+                    int next = vals[i];
+                    if (vals[next] >= 0) vals[i] = vals[next];
+                    i = next;
+                }
+                return i;
+            default:
+                int root = i;
+                while (vals[root] >= 0) root = vals[root];
+                while (i != root) {
+                    int next = vals[i];
+                    vals[i] = root;
+                    i = next;
+                }
+                return root;
         }
     }
 }
@@ -1,12 +1,22 @@
+import java.util.stream.IntStream;
+
 /**
  * Standard implementation of a BIT. Supports point updates and range queries.
  * By default, this BIT finds the sum of a range. This can easily edited by modifying
  * the add() and query0() methods (change the += to something else). Remember, this BIT
- * is one-indexed!!!
+ * is one-indexed!!! (add() throws on an index <= 0, instead of looping forever.)
+ *
+ * See LongBIT for long values, and RangeBIT for range updates.
  *
  * Methods:
  * add(int i, int v) - Adds v to index i. Runs in O(log(N)).
  * query(int l, int r) - Returns the query result for [l, r] inclusive. Runs in O(log(N)).
+ * lowerBound(int s) - Returns the smallest i with query(1, i) >= s, or size + 1 if there isn't
+ * one. Only works if every value is non-negative. Runs in O(log(N)).
+ * addAll(int[] idx, int[] v) - Does add(idx[j], v[j]) for every j. Big batches are done in one
+ * O(N) pass over the tree instead. Throws if any index is outside [1, size]. Runs in
+ * O(min(K * log(N), N + K)).
+ * queryAll(int[] l, int[] r) - Returns query(l[j], r[j]) for every j. Big batches run in parallel.
  *
  * Memory: O(N)
  */
@@ -15,12 +25,37 @@ public class BIT {
     int size;
     int[] vals;
 
+    // Batches with at least this many queries are split across threads
+    static final int PARALLEL_THRESHOLD = 1 << 14;
+
     BIT(int size) {
         this.size = size;
         vals = new int[size + 1];
     }
 
+    /**
+     * Builds the BIT in O(N). init[i] is the value at index i (init[0] is ignored, since the
+     * BIT is one-indexed), so size = init.length - 1.
+     */
+    BIT(int[] init) {
+        this(init.length - 1);
+        System.arraycopy(init, 1, vals, 1, size);
+        build(vals);
+    }
+
+    /**
+     * Turns point values in vals[1..size] into the BIT, by pushing each node's total up to
+     * its parent.
+     */
+    void build(int[] vals) {
+        for (int i = 1; i <= size; i++) {
+            int j = i + Integer.lowestOneBit(i);
+            if (j <= size) vals[j] += vals[i];
+        }
+    }
+
     void add(int i, int v) {
+        if (i <= 0) throw new IllegalArgumentException("BIT is one-indexed, got index " + i);
         while (i <= size) {
             vals[i] += v;
             i += Integer.lowestOneBit(i);
@@ -39,4 +74,41 @@ public class BIT {
     int query(int l, int r) {
         return query0(r) - query0(l-1);
     }
+
+    int lowerBound(int s) {
+        if (s <= 0) return 1;
+        // Binary lifting: walk down the powers of 2, keeping the prefix sum at i below s
+        int i = 0;
+        for (int step = Integer.highestOneBit(size); step > 0; step >>= 1) {
+            if (i + step <= size && vals[i + step] < s) {
+                i += step;
+                s -= vals[i];
+            }
+        }
+        return i + 1;
+    }
+
+    void addAll(int[] idx, int[] v) {
+        // Check everything first, so both paths reject the same indexes (and nothing is half done)
+        for (int i : idx) {
+            if (i <= 0 || i > size) throw new IllegalArgumentException("BIT is one-indexed with size " + size + ", got index " + i);
+        }
+        if ((long) idx.length * (32 - Integer.numberOfLeadingZeros(size)) < size) {
+            for (int j = 0; j < idx.length; j++) add(idx[j], v[j]);
+            return;
+        }
+        // Build a BIT out of just the changes, then add it on
+        int[] delta = new int[size + 1];
+        for (int j = 0; j < idx.length; j++) delta[idx[j]] += v[j];
+        build(delta);
+        for (int i = 1; i <= size; i++) vals[i] += delta[i];
+    }
+
+    int[] queryAll(int[] l, int[] r) {
+        int[] res = new int[l.length];
+        IntStream range = IntStream.range(0, l.length);
+        if (l.length >= PARALLEL_THRESHOLD) range = range.parallel();
+        range.forEach(j -> res[j] = query(l[j], r[j]));
+        return res;
+    }
 }
@@ -0,0 +1,67 @@
+/**
+ * 2D BIT over an R x C grid (sum). The tree is the 1D BIT applied to rows, where each "row
+ * value" is itself a 1D BIT over the columns. All of it is stored in one flat long[], with
+ * cell (r, c) at vals[r * (C+1) + c], so there are no per-row arrays to chase. Remember, this
+ * BIT is one-indexed!!!
+ *
+ * For sparse points with big coordinates, use SparseBIT2D.
+ *
+ * Methods:
+ * add(r, c, v) - Adds v to cell (r, c). Runs in O(log(R) * log(C)).
+ * query(r1, c1, r2, c2) - Returns the sum of the rectangle [r1, r2] x [c1, c2] inclusive.
+ * Runs in O(log(R) * log(C)).
+ *
+ * Memory: O(R * C)
+ */
+
+public class BIT2D {
+    int R, C, W;
+    long[] vals;
+
+    BIT2D(int R, int C) {
+        this.R = R;
+        this.C = C;
+        W = C + 1;
+        vals = new long[(R + 1) * W];
+    }
+
+    /**
+     * Builds the BIT in O(R * C). init[r][c] is the value at cell (r, c) (row 0 and column 0
+     * are ignored), so R = init.length - 1 and C = init[0].length - 1.
+     */
+    BIT2D(long[][] init) {
+        this(init.length - 1, init[0].length - 1);
+        for (int r = 1; r <= R; r++) System.arraycopy(init[r], 1, vals, r * W + 1, C);
+        // Build every row as a 1D BIT, then do the same down the columns
+        for (int r = 1; r <= R; r++) {
+            for (int c = 1; c <= C; c++) {
+                int j = c + Integer.lowestOneBit(c);
+                if (j <= C) vals[r * W + j] += vals[r * W + c];
+            }
+        }
+        for (int r = 1; r <= R; r++) {
+            int p = r + Integer.lowestOneBit(r);
+            if (p > R) continue;
+            for (int c = 1; c <= C; c++) vals[p * W + c] += vals[r * W + c];
+        }
+    }
+
+    void add(int r, int c, long v) {
+        if (r <= 0 || c <= 0) throw new IllegalArgumentException("BIT2D is one-indexed, got (" + r + ", " + c + ")");
+        for (int i = r; i <= R; i += Integer.lowestOneBit(i)) {
+            for (int j = c; j <= C; j += Integer.lowestOneBit(j)) vals[i * W + j] += v;
+        }
+    }
+
+    long query0(int r, int c) {
+        long res = 0;
+        for (int i = r; i > 0; i -= Integer.lowestOneBit(i)) {
+            for (int j = c; j > 0; j -= Integer.lowestOneBit(j)) res += vals[i * W + j];
+        }
+        return res;
+    }
+
+    long query(int r1, int c1, int r2, int c2) {
+        return query0(r2, c2) - query0(r1-1, c2) - query0(r2, c1-1) + query0(r1-1, c1-1);
+    }
+}
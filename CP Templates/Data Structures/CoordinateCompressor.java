@@ -0,0 +1,57 @@
+import java.util.*;
+
+/**
+ * Offline coordinate compression. Give it every key that will ever be used, and it maps them
+ * to 0, 1, ..., size - 1 in sorted order, so a normal (preallocated) segment tree or BIT can
+ * be used over the indexes instead of the keys.
+ *
+ * Methods:
+ * index(x) - Returns the index of key x (which must be one of the given keys). Runs in
+ * O(log(N)).
+ * lowerBound(x) / upperBound(x) - Returns the index of the first key >= x / > x (size if there
+ * isn't one). Use these to turn a key range [l, r] into the index range
+ * [lowerBound(l), upperBound(r) - 1]. Runs in O(log(N)).
+ * key(i) - Returns the key with index i. Runs in O(1).
+ *
+ * Memory: O(N)
+ */
+
+class CoordinateCompressor {
+    int size;
+    long[] keys;
+
+    CoordinateCompressor(long[] keys) {
+        this.keys = Arrays.stream(keys).sorted().distinct().toArray();
+        size = this.keys.length;
+    }
+
+    int index(long x) {
+        int i = Arrays.binarySearch(keys, x);
+        if (i < 0) throw new IllegalArgumentException(x + " wasn't given to the compressor");
+        return i;
+    }
+
+    int lowerBound(long x) {
+        int lb = 0, ub = size;
+        while (lb < ub) {
+            int mid = (lb + ub) >>> 1;
+            if (keys[mid] < x) lb = mid + 1;
+            else ub = mid;
+        }
+        return lb;
+    }
+
+    int upperBound(long x) {
+        int lb = 0, ub = size;
+        while (lb < ub) {
+            int mid = (lb + ub) >>> 1;
+            if (keys[mid] <= x) lb = mid + 1;
+            else ub = mid;
+        }
+        return lb;
+    }
+
+    long key(int i) {
+        return keys[i];
+    }
+}
@@ -3,6 +3,12 @@ import java.util.*;
 /**
  * Standard implementation of a disjoint set, also known as the union-find data structure.
  *
+ * find() is iterative (no stack overflow on long chains), and doesn't allocate anything. How
+ * it shortens paths is picked per instance:
+ * FULL - Two passes: find the root, then point everything on the path at it (default).
+ * HALVING - One pass: point every other node on the path at its grandparent.
+ * SPLITTING - One pass: point every node on the path at its grandparent.
+ *
  * Methods:
  * find(int i) - Returns the set id that i is in. Runs in amortized O(1).
  * union(int a, int b) - Unions index a and index b. Returns the id of the set they were
@@ -14,9 +20,19 @@ import java.util.*;
 class DisjointSet {
     int size;
     int[] vals;
+    Compression compression;
+
+    enum Compression {
+        FULL, HALVING, SPLITTING
+    }
 
     DisjointSet(int size) {
+        this(size, Compression.FULL);
+    }
+
+    DisjointSet(int size, Compression compression) {
         this.size = size;
+        this.compression = compression;
         vals = new int[size];
         Arrays.fill(vals, -1);
     }
@@ -38,11 +54,36 @@ class DisjointSet {
     }
 
     int find(int i) {
-        if (vals[i] < 0) return i;
-        else {
-            int res = find(vals[i]);
-            vals[i] = res;
-            return res;
+        return find(vals, i, compression);
+    }
+
+    /**
+     * Returns the root of i in vals (roots are negative), shortening the path on the way.
+     */
+    static int find(int[] vals, int i, Compression compression) {
+        switch (compression) {
+            case HALVING:
+                while (vals[i] >= 0) {
+                    if (vals[vals[i]] >= 0) vals[i] = vals[vals[i]];
+                    i = vals[i];
+                }
+                return i;
+            case SPLITTING:
+                while (vals[i] >= 0) {
+                    int next = vals[i];
+                    if (vals[next] >= 0) vals[i] = vals[next];
+                    i = next;
+                }
+                return i;
+            default:
+                int root = i;
+                while (vals[root] >= 0) root = vals[root];
+                while (i != root) {
+                    int next = vals[i];
+                    vals[i] = root;
+                    i = next;
+                }
+                return root;
         }
     }
 }
@@ -0,0 +1,99 @@
+import java.util.*;
+import java.util.function.DoubleBinaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * double version of SegmentTree (see there for how it works).
+ *
+ * Examples:
+ * new DoubleSegmentTree(n) - sum (note: floating point sums are only approximately associative)
+ * new DoubleSegmentTree(n, Math::min, Double.POSITIVE_INFINITY) - min
+ * new DoubleSegmentTree(n, Math::max, Double.NEGATIVE_INFINITY) - max
+ *
+ * Methods:
+ * update(i, v) - Updates the value of index i to v (absolute, not relative!). Runs in O(log(N)).
+ * query(l, r) - Returns the query result from [l, r] inclusive. Runs in O(log(N)).
+ * updateAll(idx, v) - Does update(idx[j], v[j]) for every j, one tree level at a time (each
+ * parent is only recomputed once). Sort idx first to get that benefit. Runs in O(K * log(N / K)).
+ * queryAll(l, r) - Returns query(l[j], r[j]) for every j. Big batches run in parallel.
+ *
+ * Memory: O(2N)
+ */
+
+class DoubleSegmentTree {
+    int size;
+    double identity;
+    double[] vals;
+    DoubleBinaryOperator op;
+
+    // Batches with at least this many queries are split across threads
+    static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    DoubleSegmentTree(int size) {
+        this(size, Double::sum, 0);
+    }
+
+    DoubleSegmentTree(int size, DoubleBinaryOperator op, double identity) {
+        this.size = size;
+        this.op = op;
+        this.identity = identity;
+        vals = new double[size * 2];
+        Arrays.fill(vals, identity);
+    }
+
+    /**
+     * Builds the tree from init in O(N).
+     */
+    DoubleSegmentTree(double[] init, DoubleBinaryOperator op, double identity) {
+        this(init.length, op, identity);
+        System.arraycopy(init, 0, vals, size, size);
+        for (int i = size - 1; i > 0; i--) vals[i] = op.applyAsDouble(vals[i*2], vals[i*2+1]);
+    }
+
+    DoubleSegmentTree(double[] init) {
+        this(init, Double::sum, 0);
+    }
+
+    void update(int i, double v) {
+        i += size;
+        vals[i] = v;
+        for (i >>= 1; i > 0; i >>= 1) vals[i] = op.applyAsDouble(vals[i*2], vals[i*2+1]);
+    }
+
+    double query(int l, int r) {
+        double resL = identity, resR = identity;
+        for (l += size, r += size + 1; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) resL = op.applyAsDouble(resL, vals[l++]);
+            if ((r & 1) == 1) resR = op.applyAsDouble(vals[--r], resR);
+        }
+        return op.applyAsDouble(resL, resR);
+    }
+
+    void updateAll(int[] idx, double[] v) {
+        int[] pos = new int[idx.length];
+        for (int j = 0; j < idx.length; j++) {
+            pos[j] = idx[j] + size;
+            vals[pos[j]] = v[j];
+        }
+        // Move up one level at a time, skipping parents that were just recomputed
+        int m = idx.length;
+        while (m > 0) {
+            int k = 0;
+            for (int j = 0; j < m; j++) {
+                int p = pos[j] >> 1;
+                if (p == 0 || (k > 0 && pos[k-1] == p)) continue;
+                vals[p] = op.applyAsDouble(vals[p*2], vals[p*2+1]);
+                pos[k++] = p;
+            }
+            m = k;
+        }
+    }
+
+    double[] queryAll(int[] l, int[] r) {
+        double[] res = new double[l.length];
+        IntStream range = IntStream.range(0, l.length);
+        if (l.length >= PARALLEL_THRESHOLD) range = range.parallel();
+        range.forEach(j -> res[j] = query(l[j], r[j]));
+        return res;
+    }
+}
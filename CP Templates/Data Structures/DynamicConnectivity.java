@@ -0,0 +1,158 @@
+import java.util.*;
+import java.io.*;
+
+/**
+ * Offline dynamic connectivity: answers "are A and B connected?" queries while undirected
+ * edges are being added and removed, given every operation upfront.
+ *
+ * Each edge is alive for an interval of time (from when it's added to when it's removed, or
+ * to the end). Those intervals are put into a segment tree over time, so each one is stored in
+ * O(log(Q)) nodes. Then a DFS over the tree unions a node's edges into a RollbackDisjointSet on
+ * the way down and rolls them back on the way up, so at leaf t the disjoint set holds exactly
+ * the edges alive at time t.
+ *
+ * Note: Adding an edge that's already there, or removing one that isn't, is ignored. This
+ * uses RollbackDisjointSet, so it lives next to it in Data Structures (copy both files).
+ *
+ * Input format:
+ * N Q
+ * T1 A1 B1
+ * T2 A2 B2
+ * ...
+ * Tq Aq Bq
+ *
+ * N is the number of nodes, Q is the number of operations.
+ * T = 1 adds the edge A - B, T = 2 removes it, and T = 3 asks if A and B are connected.
+ * (Assumes A and B are offset by +1.)
+ *
+ * Output: YES or NO for every T = 3 operation, in order.
+ *
+ * Runtime: O(Q * log(Q) * log(N))
+ * Memory: O(N + Q * log(Q))
+ */
+
+public class DynamicConnectivity {
+    int N, Q;
+    int[] type, a, b;
+    // Segment tree over time, with a linked list of edge ids (entryEdge) at every node
+    int[] head, entryEdge, entryNext;
+    int numEntries;
+    int[] edgeA, edgeB;
+    boolean[] answers;
+    RollbackDisjointSet ds;
+
+    DynamicConnectivity(BufferedReader in, PrintWriter out) throws IOException {
+        StringTokenizer st = new StringTokenizer(in.readLine());
+        N = Integer.parseInt(st.nextToken());
+        Q = Integer.parseInt(st.nextToken());
+        type = new int[Q];
+        a = new int[Q];
+        b = new int[Q];
+        for (int i = 0; i < Q; i++) {
+            st = new StringTokenizer(in.readLine());
+            type[i] = Integer.parseInt(st.nextToken());
+            a[i] = Integer.parseInt(st.nextToken()) - 1;
+            b[i] = Integer.parseInt(st.nextToken()) - 1;
+        }
+
+        solve();
+        for (int i = 0; i < Q; i++) {
+            if (type[i] == 3) out.println(answers[i] ? "YES" : "NO");
+        }
+    }
+
+    /**
+     * Uses the given operations directly (0-indexed nodes), without reading input. Call
+     * solve() to fill answers.
+     */
+    DynamicConnectivity(int N, int[] type, int[] a, int[] b) {
+        this.N = N;
+        this.type = type;
+        this.a = a;
+        this.b = b;
+        Q = type.length;
+    }
+
+    /**
+     * Returns answers, where answers[i] is whether a[i] and b[i] are connected (only for
+     * operations with type[i] = 3).
+     */
+    boolean[] solve() {
+        answers = new boolean[Q];
+        if (Q == 0) return answers;
+        head = new int[Q * 4];
+        Arrays.fill(head, -1);
+        entryEdge = new int[16];
+        entryNext = new int[16];
+        edgeA = new int[16];
+        edgeB = new int[16];
+        int numEdges = 0;
+        // Start time of every edge that's currently in the graph
+        HashMap<Long, Integer> added = new HashMap<>();
+        for (int i = 0; i < Q; i++) {
+            if (type[i] == 3) continue;
+            long key = (long) Math.min(a[i], b[i]) * N + Math.max(a[i], b[i]);
+            if (type[i] == 1 && !added.containsKey(key)) added.put(key, i);
+            else if (type[i] == 2 && added.containsKey(key)) {
+                numEdges = addInterval(added.remove(key), i - 1, a[i], b[i], numEdges);
+            }
+        }
+        for (Map.Entry<Long, Integer> e : added.entrySet()) {
+            int i = e.getValue();
+            numEdges = addInterval(i, Q - 1, a[i], b[i], numEdges);
+        }
+
+        ds = new RollbackDisjointSet(N);
+        dfs(1, 0, Q - 1);
+        return answers;
+    }
+
+    int addInterval(int l, int r, int u, int v, int numEdges) {
+        if (numEdges == edgeA.length) {
+            edgeA = Arrays.copyOf(edgeA, numEdges * 2);
+            edgeB = Arrays.copyOf(edgeB, numEdges * 2);
+        }
+        edgeA[numEdges] = u;
+        edgeB[numEdges] = v;
+        insert(1, 0, Q - 1, l, r, numEdges);
+        return numEdges + 1;
+    }
+
+    void insert(int n, int lb, int ub, int l, int r, int e) {
+        if (lb > r || ub < l) return;
+        else if (lb >= l && ub <= r) {
+            if (numEntries == entryEdge.length) {
+                entryEdge = Arrays.copyOf(entryEdge, numEntries * 2);
+                entryNext = Arrays.copyOf(entryNext, numEntries * 2);
+            }
+            entryEdge[numEntries] = e;
+            entryNext[numEntries] = head[n];
+            head[n] = numEntries++;
+            return;
+        }
+        insert(n*2, lb, (lb+ub)/2, l, r, e);
+        insert(n*2+1, (lb+ub)/2+1, ub, l, r, e);
+    }
+
+    void dfs(int n, int lb, int ub) {
+        int snapshot = ds.snapshot();
+        for (int i = head[n]; i != -1; i = entryNext[i]) ds.union(edgeA[entryEdge[i]], edgeB[entryEdge[i]]);
+        if (lb == ub) {
+            if (type[lb] == 3) answers[lb] = ds.find(a[lb]) == ds.find(b[lb]);
+        } else {
+            dfs(n*2, lb, (lb+ub)/2);
+            dfs(n*2+1, (lb+ub)/2+1, ub);
+        }
+        ds.rollback(snapshot);
+    }
+
+    public static void main(String[] args) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+        PrintWriter out = new PrintWriter(new BufferedOutputStream(System.out));
+        // BufferedReader in = new BufferedReader(new FileReader("DynamicConnectivity.in"));
+        // PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter("DynamicConnectivity.out")));
+        new DynamicConnectivity(in, out);
+        in.close();
+        out.close();
+    }
+}
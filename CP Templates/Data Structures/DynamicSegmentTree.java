@@ -0,0 +1,113 @@
+import java.util.*;
+
+/**
+ * Dynamic (sparse) segment tree over a huge range of long coordinates [lo, hi], like 64-bit
+ * timestamps. Nodes are only made on the paths that updates touch, so it never needs the
+ * size * 4 slots the other segment trees preallocate. They live in a pooled arena of
+ * primitive arrays (left, right, sum, lazy) that grows by doubling. Child 0 means "no node
+ * yet" (everything under it is 0).
+ *
+ * Range adds aren't pushed down: sum[n] already includes every add inside n's range, and
+ * lazy[n] is the part that applies to all of n and isn't in its children yet. A query adds up
+ * the lazy values on its way down instead, so queries never make new nodes.
+ *
+ * If every coordinate is known upfront, it's faster to compress them with CoordinateCompressor
+ * and use a normal segment tree instead.
+ *
+ * Note: hi - lo must fit in a long.
+ *
+ * Methods:
+ * add(l, r, v) - Adds v to every index in [l, r] inclusive. Runs in O(log(U)).
+ * update(i, v) - Updates the value of index i to v. Runs in O(log(U)).
+ * query(l, r) - Returns the sum of [l, r] inclusive. Runs in O(log(U)).
+ *
+ * Memory: O(Q * log(U)), where Q is the number of updates and U = hi - lo + 1
+ */
+
+class DynamicSegmentTree {
+    long lo, hi;
+    int numNodes;
+    int[] left, right;
+    long[] sum, lazy;
+
+    DynamicSegmentTree(long lo, long hi) {
+        this(lo, hi, 16);
+    }
+
+    /**
+     * capacity is how many nodes to make room for upfront (about Q * log(U)).
+     */
+    DynamicSegmentTree(long lo, long hi, int capacity) {
+        this.lo = lo;
+        this.hi = hi;
+        capacity = Math.max(capacity, 2);
+        left = new int[capacity];
+        right = new int[capacity];
+        sum = new long[capacity];
+        lazy = new long[capacity];
+        // Node 0 is "no node", node 1 is the root
+        numNodes = 2;
+    }
+
+    void add(long l, long r, long v) {
+        if (l > r) return;
+        add(1, lo, hi, l, r, v);
+    }
+
+    void add(int n, long lb, long ub, long l, long r, long v) {
+        if (lb > r || ub < l) return;
+        sum[n] += v * (Math.min(ub, r) - Math.max(lb, l) + 1);
+        if (lb >= l && ub <= r) {
+            lazy[n] += v;
+            return;
+        }
+        long mid = lb + (ub - lb) / 2;
+        if (l <= mid) {
+            // newNode() might grow the arrays, so call it before indexing into them
+            if (left[n] == 0) {
+                int c = newNode();
+                left[n] = c;
+            }
+            add(left[n], lb, mid, l, r, v);
+        }
+        if (r > mid) {
+            if (right[n] == 0) {
+                int c = newNode();
+                right[n] = c;
+            }
+            add(right[n], mid + 1, ub, l, r, v);
+        }
+    }
+
+    void update(long i, long v) {
+        add(i, i, v - query(i, i));
+    }
+
+    long query(long l, long r) {
+        if (l > r) return 0;
+        return query(1, lo, hi, l, r, 0);
+    }
+
+    /**
+     * acc is the total lazy value of n's ancestors, which applies to all of n.
+     */
+    long query(int n, long lb, long ub, long l, long r, long acc) {
+        if (lb > r || ub < l) return 0;
+        if (n == 0) return acc * (Math.min(ub, r) - Math.max(lb, l) + 1);
+        else if (lb >= l && ub <= r) return sum[n] + acc * (ub - lb + 1);
+        acc += lazy[n];
+        long mid = lb + (ub - lb) / 2;
+        return query(left[n], lb, mid, l, r, acc) + query(right[n], mid + 1, ub, l, r, acc);
+    }
+
+    int newNode() {
+        if (numNodes == sum.length) {
+            int newSize = numNodes * 2;
+            left = Arrays.copyOf(left, newSize);
+            right = Arrays.copyOf(right, newSize);
+            sum = Arrays.copyOf(sum, newSize);
+            lazy = Arrays.copyOf(lazy, newSize);
+        }
+        return numNodes++;
+    }
+}
@@ -0,0 +1,213 @@
+import java.util.*;
+
+/**
+ * General segment tree with lazy propagation. Values and lazy tags are both stored as longs
+ * in primitive arrays, and what they mean is given by an Ops object:
+ * op(a, b) / e() - How to merge two values (associative), and the value of an empty range.
+ * mapping(f, x, len) - The result of applying tag f to a node with value x covering len indexes.
+ * composition(f, g) - The tag that does g first, then f.
+ * id() - The tag that does nothing.
+ *
+ * The tree is iterative: a range update / query first pushes the tags down along the two
+ * boundary paths (top-down, O(log(N)) nodes), then works bottom-up like SegmentTree. So there's
+ * no recursion at all.
+ *
+ * Ready-made Ops: rangeAddSum(), rangeAddMin(), rangeAddMax(), rangeAssignSum(),
+ * rangeAssignMin(), rangeAssignMax(), affineSumMod(mod). For affine updates x -> b * x + c,
+ * the tag is packed as (b << 32) | c, so use affine(b, c) to make one.
+ *
+ * Methods:
+ * update(l, r, f) - Applies tag f to every index in [l, r] inclusive. Runs in O(log(N)).
+ * query(l, r) - Returns the query result from [l, r] inclusive. Runs in O(log(N)).
+ * set(i, v) / get(i) - Sets / gets the value of index i. Runs in O(log(N)).
+ *
+ * Memory: O(6N)
+ */
+
+class LazySegmentTree {
+    // Tag meaning "no assignment" for the rangeAssign Ops
+    static final long NO_ASSIGN = Long.MIN_VALUE;
+    int n, size, log;
+    long[] vals, lazy;
+    Ops ops;
+
+    interface Ops {
+        long op(long a, long b);
+        long e();
+        long mapping(long f, long x, int len);
+        long composition(long f, long g);
+        long id();
+    }
+
+    LazySegmentTree(int n, Ops ops) {
+        this.n = n;
+        this.ops = ops;
+        log = 0;
+        while ((1 << log) < n) log++;
+        size = 1 << log;
+        vals = new long[size * 2];
+        lazy = new long[size];
+        Arrays.fill(vals, ops.e());
+        Arrays.fill(lazy, ops.id());
+    }
+
+    /**
+     * Builds the tree from init in O(N).
+     */
+    LazySegmentTree(long[] init, Ops ops) {
+        this(init.length, ops);
+        System.arraycopy(init, 0, vals, size, n);
+        for (int k = size - 1; k > 0; k--) pull(k);
+    }
+
+    void set(int i, long v) {
+        i += size;
+        for (int d = log; d > 0; d--) push(i >> d);
+        vals[i] = v;
+        for (int d = 1; d <= log; d++) pull(i >> d);
+    }
+
+    long get(int i) {
+        i += size;
+        for (int d = log; d > 0; d--) push(i >> d);
+        return vals[i];
+    }
+
+    long query(int l, int r) {
+        if (l > r) return ops.e();
+        l += size;
+        r += size + 1;
+        // Push tags down along both boundary paths
+        for (int d = log; d > 0; d--) {
+            if (((l >> d) << d) != l) push(l >> d);
+            if (((r >> d) << d) != r) push((r - 1) >> d);
+        }
+        long resL = ops.e(), resR = ops.e();
+        for (; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) resL = ops.op(resL, vals[l++]);
+            if ((r & 1) == 1) resR = ops.op(vals[--r], resR);
+        }
+        return ops.op(resL, resR);
+    }
+
+    void update(int l, int r, long f) {
+        if (l > r) return;
+        l += size;
+        r += size + 1;
+        for (int d = log; d > 0; d--) {
+            if (((l >> d) << d) != l) push(l >> d);
+            if (((r >> d) << d) != r) push((r - 1) >> d);
+        }
+        for (int l2 = l, r2 = r; l2 < r2; l2 >>= 1, r2 >>= 1) {
+            if ((l2 & 1) == 1) apply(l2++, f);
+            if ((r2 & 1) == 1) apply(--r2, f);
+        }
+        // Recompute the nodes above the updated ones
+        for (int d = 1; d <= log; d++) {
+            if (((l >> d) << d) != l) pull(l >> d);
+            if (((r >> d) << d) != r) pull((r - 1) >> d);
+        }
+    }
+
+    void pull(int k) {
+        vals[k] = ops.op(vals[k*2], vals[k*2+1]);
+    }
+
+    void apply(int k, long f) {
+        vals[k] = ops.mapping(f, vals[k], size >> (31 - Integer.numberOfLeadingZeros(k)));
+        if (k < size) lazy[k] = ops.composition(f, lazy[k]);
+    }
+
+    void push(int k) {
+        if (lazy[k] == ops.id()) return;
+        apply(k*2, lazy[k]);
+        apply(k*2+1, lazy[k]);
+        lazy[k] = ops.id();
+    }
+
+    static Ops rangeAddSum() {
+        return new Ops() {
+            public long op(long a, long b) { return a + b; }
+            public long e() { return 0; }
+            public long mapping(long f, long x, int len) { return x + f * len; }
+            public long composition(long f, long g) { return f + g; }
+            public long id() { return 0; }
+        };
+    }
+
+    static Ops rangeAddMin() {
+        return new Ops() {
+            public long op(long a, long b) { return Math.min(a, b); }
+            public long e() { return Long.MAX_VALUE; }
+            public long mapping(long f, long x, int len) { return x == Long.MAX_VALUE ? x : x + f; }
+            public long composition(long f, long g) { return f + g; }
+            public long id() { return 0; }
+        };
+    }
+
+    static Ops rangeAddMax() {
+        return new Ops() {
+            public long op(long a, long b) { return Math.max(a, b); }
+            public long e() { return Long.MIN_VALUE; }
+            public long mapping(long f, long x, int len) { return x == Long.MIN_VALUE ? x : x + f; }
+            public long composition(long f, long g) { return f + g; }
+            public long id() { return 0; }
+        };
+    }
+
+    static Ops rangeAssignSum() {
+        return new Ops() {
+            public long op(long a, long b) { return a + b; }
+            public long e() { return 0; }
+            public long mapping(long f, long x, int len) { return f == NO_ASSIGN ? x : f * len; }
+            public long composition(long f, long g) { return f == NO_ASSIGN ? g : f; }
+            public long id() { return NO_ASSIGN; }
+        };
+    }
+
+    static Ops rangeAssignMin() {
+        return new Ops() {
+            public long op(long a, long b) { return Math.min(a, b); }
+            public long e() { return Long.MAX_VALUE; }
+            public long mapping(long f, long x, int len) { return f == NO_ASSIGN ? x : f; }
+            public long composition(long f, long g) { return f == NO_ASSIGN ? g : f; }
+            public long id() { return NO_ASSIGN; }
+        };
+    }
+
+    static Ops rangeAssignMax() {
+        return new Ops() {
+            public long op(long a, long b) { return Math.max(a, b); }
+            public long e() { return Long.MIN_VALUE; }
+            public long mapping(long f, long x, int len) { return f == NO_ASSIGN ? x : f; }
+            public long composition(long f, long g) { return f == NO_ASSIGN ? g : f; }
+            public long id() { return NO_ASSIGN; }
+        };
+    }
+
+    /**
+     * Tag for x -> b * x + c (b and c must be in [0, 2^31)).
+     */
+    static long affine(long b, long c) {
+        return (b << 32) | c;
+    }
+
+    /**
+     * Range affine update, range sum, everything mod mod (mod < 2^31).
+     */
+    static Ops affineSumMod(long mod) {
+        return new Ops() {
+            public long op(long a, long b) { return (a + b) % mod; }
+            public long e() { return 0; }
+            public long mapping(long f, long x, int len) {
+                return ((f >>> 32) * x + (f & 0xFFFFFFFFL) * len) % mod;
+            }
+            public long composition(long f, long g) {
+                // f(g(x)) = fb * (gb * x + gc) + fc
+                long fb = f >>> 32, fc = f & 0xFFFFFFFFL, gb = g >>> 32, gc = g & 0xFFFFFFFFL;
+                return affine(fb * gb % mod, (fb * gc + fc) % mod);
+            }
+            public long id() { return affine(1, 0); }
+        };
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * BIT with long values (see BIT). Remember, this BIT is one-indexed!!!
+ *
+ * Nothing allocates after the constructor, so it's safe to use as a hot counter.
+ *
+ * Methods:
+ * add(int i, long v) - Adds v to index i. Runs in O(log(N)).
+ * query(int l, int r) - Returns the sum of [l, r] inclusive. Runs in O(log(N)).
+ * lowerBound(long s) - Returns the smallest i with query(1, i) >= s, or size + 1 if there isn't
+ * one. Only works if every value is non-negative. Runs in O(log(N)).
+ *
+ * Memory: O(N)
+ */
+
+public class LongBIT {
+    int size;
+    long[] vals;
+
+    LongBIT(int size) {
+        this.size = size;
+        vals = new long[size + 1];
+    }
+
+    /**
+     * Builds the BIT in O(N), in place: init[i] is the value at index i (init[0] is ignored),
+     * and init itself becomes the tree, so don't use it afterwards.
+     */
+    LongBIT(long[] init) {
+        size = init.length - 1;
+        vals = init;
+        vals[0] = 0;
+        for (int i = 1; i <= size; i++) {
+            int j = i + Integer.lowestOneBit(i);
+            if (j <= size) vals[j] += vals[i];
+        }
+    }
+
+    void add(int i, long v) {
+        if (i <= 0) throw new IllegalArgumentException("BIT is one-indexed, got index " + i);
+        while (i <= size) {
+            vals[i] += v;
+            i += Integer.lowestOneBit(i);
+        }
+    }
+
+    long query0(int i) {
+        long res = 0;
+        while (i > 0) {
+            res += vals[i];
+            i -= Integer.lowestOneBit(i);
+        }
+        return res;
+    }
+
+    long query(int l, int r) {
+        return query0(r) - query0(l-1);
+    }
+
+    int lowerBound(long s) {
+        if (s <= 0) return 1;
+        int i = 0;
+        for (int step = Integer.highestOneBit(size); step > 0; step >>= 1) {
+            if (i + step <= size && vals[i + step] < s) {
+                i += step;
+                s -= vals[i];
+            }
+        }
+        return i + 1;
+    }
+}
@@ -0,0 +1,109 @@
+import java.util.*;
+import java.util.function.LongBinaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * long version of SegmentTree (see there for how it works).
+ *
+ * Examples:
+ * new LongSegmentTree(n) - sum
+ * new LongSegmentTree(n, Math::min, Long.MAX_VALUE) - min
+ * new LongSegmentTree(n, Math::max, Long.MIN_VALUE) - max
+ * new LongSegmentTree(n, LongSegmentTree::gcd, 0) - gcd
+ *
+ * Methods:
+ * update(i, v) - Updates the value of index i to v (absolute, not relative!). Runs in O(log(N)).
+ * query(l, r) - Returns the query result from [l, r] inclusive. Runs in O(log(N)).
+ * updateAll(idx, v) - Does update(idx[j], v[j]) for every j, one tree level at a time (each
+ * parent is only recomputed once). Sort idx first to get that benefit. Runs in O(K * log(N / K)).
+ * queryAll(l, r) - Returns query(l[j], r[j]) for every j. Big batches run in parallel.
+ *
+ * Memory: O(2N)
+ */
+
+class LongSegmentTree {
+    int size;
+    long identity;
+    long[] vals;
+    LongBinaryOperator op;
+
+    // Batches with at least this many queries are split across threads
+    static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    LongSegmentTree(int size) {
+        this(size, Long::sum, 0);
+    }
+
+    LongSegmentTree(int size, LongBinaryOperator op, long identity) {
+        this.size = size;
+        this.op = op;
+        this.identity = identity;
+        vals = new long[size * 2];
+        Arrays.fill(vals, identity);
+    }
+
+    /**
+     * Builds the tree from init in O(N).
+     */
+    LongSegmentTree(long[] init, LongBinaryOperator op, long identity) {
+        this(init.length, op, identity);
+        System.arraycopy(init, 0, vals, size, size);
+        for (int i = size - 1; i > 0; i--) vals[i] = op.applyAsLong(vals[i*2], vals[i*2+1]);
+    }
+
+    LongSegmentTree(long[] init) {
+        this(init, Long::sum, 0);
+    }
+
+    void update(int i, long v) {
+        i += size;
+        vals[i] = v;
+        for (i >>= 1; i > 0; i >>= 1) vals[i] = op.applyAsLong(vals[i*2], vals[i*2+1]);
+    }
+
+    long query(int l, int r) {
+        long resL = identity, resR = identity;
+        for (l += size, r += size + 1; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) resL = op.applyAsLong(resL, vals[l++]);
+            if ((r & 1) == 1) resR = op.applyAsLong(vals[--r], resR);
+        }
+        return op.applyAsLong(resL, resR);
+    }
+
+    void updateAll(int[] idx, long[] v) {
+        int[] pos = new int[idx.length];
+        for (int j = 0; j < idx.length; j++) {
+            pos[j] = idx[j] + size;
+            vals[pos[j]] = v[j];
+        }
+        // Move up one level at a time, skipping parents that were just recomputed
+        int m = idx.length;
+        while (m > 0) {
+            int k = 0;
+            for (int j = 0; j < m; j++) {
+                int p = pos[j] >> 1;
+                if (p == 0 || (k > 0 && pos[k-1] == p)) continue;
+                vals[p] = op.applyAsLong(vals[p*2], vals[p*2+1]);
+                pos[k++] = p;
+            }
+            m = k;
+        }
+    }
+
+    long[] queryAll(int[] l, int[] r) {
+        long[] res = new long[l.length];
+        IntStream range = IntStream.range(0, l.length);
+        if (l.length >= PARALLEL_THRESHOLD) range = range.parallel();
+        range.forEach(j -> res[j] = query(l[j], r[j]));
+        return res;
+    }
+
+    static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return Math.abs(a);
+    }
+}
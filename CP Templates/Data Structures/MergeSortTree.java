@@ -0,0 +1,86 @@
+import java.util.*;
+
+/**
+ * Merge sort tree over a static int array. levels[k] is the array with every aligned block of
+ * 2^k indexes sorted (so it's exactly what merge sort has after k rounds). A range [l, r] is
+ * split into O(log(N)) aligned blocks, and each block is binary searched.
+ *
+ * Simpler than WaveletMatrix, but it takes N * log(N) ints and the queries are slower (see
+ * WaveletMatrix.benchmark()).
+ *
+ * Methods:
+ * countLE(l, r, x) - Returns how many values in [l, r] inclusive are <= x. Runs in
+ * O(log^2(N)).
+ * kthSmallest(l, r, k) - Returns the k-th smallest value (one-indexed) in [l, r] inclusive.
+ * Runs in O(log^3(N)).
+ *
+ * Memory: O(N * log(N))
+ */
+
+class MergeSortTree {
+    int N;
+    int[][] levels;
+
+    MergeSortTree(int[] a) {
+        N = a.length;
+        int numLevels = Math.max(32 - Integer.numberOfLeadingZeros(N - 1), 0) + 1;
+        levels = new int[numLevels][];
+        levels[0] = a.clone();
+        for (int k = 1; k < numLevels; k++) {
+            int[] prev = levels[k-1], curr = new int[N];
+            int half = 1 << (k-1);
+            for (int s = 0; s < N; s += half * 2) {
+                // Merge [s, s + half) and [s + half, s + 2 * half)
+                int i = s, iEnd = Math.min(s + half, N), j = iEnd, jEnd = Math.min(s + half * 2, N), o = s;
+                while (i < iEnd || j < jEnd) {
+                    if (j == jEnd || (i < iEnd && prev[i] <= prev[j])) curr[o++] = prev[i++];
+                    else curr[o++] = prev[j++];
+                }
+            }
+            levels[k] = curr;
+        }
+    }
+
+    int countLE(int l, int r, int x) {
+        int res = 0;
+        for (int i = l; i <= r; ) {
+            // Biggest aligned block that starts at i and ends by r
+            int k = Math.min(Integer.numberOfTrailingZeros(i | (1 << 30)), levels.length - 1);
+            while (i + (1 << k) - 1 > r) k--;
+            res += upperBound(levels[k], i, i + (1 << k), x) - i;
+            i += 1 << k;
+        }
+        return res;
+    }
+
+    /**
+     * Returns the first index in [from, to) with a[index] > x (a must be sorted in that range).
+     */
+    private static int upperBound(int[] a, int from, int to, int x) {
+        int lb = from, ub = to;
+        while (lb < ub) {
+            int mid = (lb + ub) >>> 1;
+            if (a[mid] <= x) lb = mid + 1;
+            else ub = mid;
+        }
+        return lb;
+    }
+
+    int kthSmallest(int l, int r, int k) {
+        // The top level is the whole array sorted; find the first value with countLE >= k
+        int[] all = levels[levels.length - 1];
+        int lb = 0, ub = N - 1;
+        while (lb < ub) {
+            int mid = (lb + ub) / 2;
+            if (countLE(l, r, all[mid]) >= k) ub = mid;
+            else lb = mid + 1;
+        }
+        return all[lb];
+    }
+
+    long memoryBytes() {
+        long bytes = 0;
+        for (int[] level : levels) bytes += 4L * level.length;
+        return bytes;
+    }
+}
@@ -0,0 +1,158 @@
+import java.util.*;
+
+/**
+ * Persistent segment tree (point update, range sum). Updates never change an existing node:
+ * they copy the O(log(N)) nodes on the path to the updated index, and reuse every other node
+ * from the old version. So every old version stays queryable, at a cost of O(log(N)) memory
+ * per update instead of O(N) for a full copy.
+ *
+ * Nodes live in a pooled arena of primitive arrays (left, right, val), which grows by doubling.
+ * Node 0 is the empty tree (every value is 0, and both of its children are itself), so
+ * new PersistentSegmentTree(n) doesn't have to build anything.
+ *
+ * Versions are just ints. Version 0 is the starting tree, and every update returns the handle
+ * of the new version it made (the old one is left alone).
+ *
+ * K-th smallest in a range: make version i + 1 by adding 1 at the (compressed) value of a[i] to
+ * version i. Then version r + 1 minus version l counts the values in a[l..r], and kth() walks
+ * down both at once. kthSmallest() does all of this offline.
+ *
+ * Methods:
+ * update(version, i, v) - Makes a new version with index i set to v. Runs in O(log(N)).
+ * add(version, i, v) - Makes a new version with v added to index i. Runs in O(log(N)).
+ * query(version, l, r) - Returns the sum of [l, r] inclusive in that version. Runs in O(log(N)).
+ * kth(versionL, versionR, k) - Returns the smallest index i where the sum of [0, i] in
+ * versionR minus versionL is >= k (k is one-indexed). Runs in O(log(N)).
+ *
+ * Memory: O(N + U * log(N)), where U is the number of updates
+ */
+
+class PersistentSegmentTree {
+    int size, numNodes, numVersions;
+    int[] left, right, val, roots;
+
+    PersistentSegmentTree(int size) {
+        this.size = size;
+        left = new int[16];
+        right = new int[16];
+        val = new int[16];
+        numNodes = 1;
+        roots = new int[16];
+        numVersions = 1;
+    }
+
+    /**
+     * Builds version 0 from init in O(N).
+     */
+    PersistentSegmentTree(int[] init) {
+        this(init.length);
+        if (size > 0) roots[0] = build(init, 0, size - 1);
+    }
+
+    int build(int[] init, int lb, int ub) {
+        if (lb == ub) return newNode(0, 0, init[lb]);
+        int l = build(init, lb, (lb+ub)/2);
+        int r = build(init, (lb+ub)/2+1, ub);
+        return newNode(l, r, val[l] + val[r]);
+    }
+
+    int update(int version, int i, int v) {
+        return newVersion(change(roots[version], 0, size - 1, i, v, false));
+    }
+
+    int add(int version, int i, int v) {
+        return newVersion(change(roots[version], 0, size - 1, i, v, true));
+    }
+
+    /**
+     * Returns a copy of node n with index i changed.
+     */
+    int change(int n, int lb, int ub, int i, int v, boolean relative) {
+        if (lb == ub) return newNode(0, 0, relative ? val[n] + v : v);
+        int l = left[n], r = right[n];
+        if (i <= (lb+ub)/2) l = change(l, lb, (lb+ub)/2, i, v, relative);
+        else r = change(r, (lb+ub)/2+1, ub, i, v, relative);
+        return newNode(l, r, val[l] + val[r]);
+    }
+
+    int query(int version, int l, int r) {
+        return query(roots[version], 0, size - 1, l, r);
+    }
+
+    int query(int n, int lb, int ub, int l, int r) {
+        if (n == 0 || lb > r || ub < l) return 0;
+        else if (lb >= l && ub <= r) return val[n];
+        return query(left[n], lb, (lb+ub)/2, l, r) + query(right[n], (lb+ub)/2+1, ub, l, r);
+    }
+
+    int kth(int versionL, int versionR, int k) {
+        int a = roots[versionL], b = roots[versionR], lb = 0, ub = size - 1;
+        while (lb < ub) {
+            int cnt = val[left[b]] - val[left[a]];
+            if (k <= cnt) {
+                a = left[a];
+                b = left[b];
+                ub = (lb+ub)/2;
+            } else {
+                k -= cnt;
+                a = right[a];
+                b = right[b];
+                lb = (lb+ub)/2+1;
+            }
+        }
+        return lb;
+    }
+
+    int newNode(int l, int r, int v) {
+        if (numNodes == val.length) {
+            int newSize = numNodes * 2;
+            left = Arrays.copyOf(left, newSize);
+            right = Arrays.copyOf(right, newSize);
+            val = Arrays.copyOf(val, newSize);
+        }
+        left[numNodes] = l;
+        right[numNodes] = r;
+        val[numNodes] = v;
+        return numNodes++;
+    }
+
+    int newVersion(int root) {
+        if (numVersions == roots.length) roots = Arrays.copyOf(roots, numVersions * 2);
+        roots[numVersions] = root;
+        return numVersions++;
+    }
+
+    /**
+     * Returns the k-th smallest value (one-indexed) in a[l[j]..r[j]] for every j.
+     */
+    static int[] kthSmallest(int[] a, int[] l, int[] r, int[] k) {
+        int[] sorted = Arrays.stream(a).sorted().distinct().toArray();
+        PersistentSegmentTree tree = new PersistentSegmentTree(sorted.length);
+        for (int i = 0; i < a.length; i++) tree.add(i, Arrays.binarySearch(sorted, a[i]), 1);
+        int[] res = new int[l.length];
+        for (int j = 0; j < l.length; j++) res[j] = sorted[tree.kth(l[j], r[j] + 1, k[j])];
+        return res;
+    }
+
+    /**
+     * Does U random point updates on a tree of size N, and prints how much memory each one
+     * took (3 ints per node) next to what a full copy of the array would take.
+     */
+    static void benchmark(int N, int U) {
+        Random random = new Random(1);
+        long startTime = System.currentTimeMillis();
+        PersistentSegmentTree tree = new PersistentSegmentTree(N);
+        int version = 0;
+        for (int u = 0; u < U; u++) version = tree.add(version, random.nextInt(N), random.nextInt(1000));
+        float time = (System.currentTimeMillis() - startTime) / 1000f;
+        long checksum = 0;
+        for (int v = 0; v <= U; v += Math.max(U / 1000, 1)) checksum += tree.query(v, 0, N / 2);
+        System.out.printf("N = %d, %d updates: %.3f seconds (checksum %d)\n", N, U, time, checksum);
+        System.out.printf("%.1f nodes / %.1f bytes per update (a full copy is %d bytes)\n",
+                (tree.numNodes - 1.0) / U, (tree.numNodes - 1.0) * 12 / U, 4L * N);
+    }
+
+    public static void main(String[] args) {
+        benchmark(1 << 20, 1000000);
+    }
+}
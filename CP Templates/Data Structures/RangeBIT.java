@@ -0,0 +1,66 @@
+/**
+ * BIT that supports range updates and range queries (sum), using two long BITs. Adding v to
+ * [l, r] makes the prefix sum up to i change by v * i - v * (l - 1) for l <= i <= r, and by
+ * v * (r - l + 1) after r. So one BIT (mul) holds the coefficient of i, and the other (add)
+ * holds the constant part: prefix(i) = query(mul, i) * i + query(add, i).
+ *
+ * Remember, this BIT is one-indexed!!! Nothing allocates after the constructor.
+ *
+ * Methods:
+ * add(int l, int r, long v) - Adds v to every index in [l, r] inclusive. Runs in O(log(N)).
+ * query(int l, int r) - Returns the sum of [l, r] inclusive. Runs in O(log(N)).
+ *
+ * Memory: O(2N)
+ */
+
+public class RangeBIT {
+    int size;
+    long[] mul, add;
+
+    RangeBIT(int size) {
+        this.size = size;
+        mul = new long[size + 1];
+        add = new long[size + 1];
+    }
+
+    /**
+     * Builds the BIT in O(N). init[i] is the value at index i (init[0] is ignored). The
+     * starting values only need the constant part.
+     */
+    RangeBIT(long[] init) {
+        this(init.length - 1);
+        for (int i = 1; i <= size; i++) {
+            add[i] += init[i];
+            int j = i + Integer.lowestOneBit(i);
+            if (j <= size) add[j] += add[i];
+        }
+    }
+
+    void add(int l, int r, long v) {
+        if (l <= 0) throw new IllegalArgumentException("BIT is one-indexed, got index " + l);
+        if (l > r) return;
+        add0(l, v, -v * (l - 1));
+        if (r < size) add0(r + 1, -v, v * r);
+    }
+
+    void add0(int i, long m, long a) {
+        while (i <= size) {
+            mul[i] += m;
+            add[i] += a;
+            i += Integer.lowestOneBit(i);
+        }
+    }
+
+    long query0(int i) {
+        long m = 0, a = 0;
+        for (int j = i; j > 0; j -= Integer.lowestOneBit(j)) {
+            m += mul[j];
+            a += add[j];
+        }
+        return m * i + a;
+    }
+
+    long query(int l, int r) {
+        return query0(r) - query0(l-1);
+    }
+}
@@ -0,0 +1,68 @@
+import java.util.*;
+
+/**
+ * Disjoint set that can undo unions. It uses union by size and no path compression, so every
+ * union only changes two entries of vals, and those are pushed onto an undo log (a primitive
+ * int stack: the root that was linked, then its old size) so they can be put back.
+ *
+ * Methods:
+ * find(int i) - Returns the set id that i is in. Runs in O(log(N)).
+ * union(int a, int b) - Unions index a and index b. Returns whether two sets were merged. Runs
+ * in O(log(N)).
+ * snapshot() - Returns a handle to the current state. Runs in O(1).
+ * rollback(int snapshot) - Undoes every union done after snapshot() returned that handle.
+ * Runs in O(1) per undone union.
+ *
+ * Memory: O(N)
+ */
+
+class RollbackDisjointSet {
+    int size, components, top;
+    int[] vals, history;
+
+    RollbackDisjointSet(int size) {
+        this.size = size;
+        components = size;
+        vals = new int[size];
+        Arrays.fill(vals, -1);
+        history = new int[16];
+    }
+
+    boolean union(int a, int b) {
+        int setA = find(a);
+        int setB = find(b);
+        if (setA == setB) return false;
+        // Link the smaller set (setB) under the bigger one (setA)
+        if (vals[setA] > vals[setB]) {
+            int temp = setA;
+            setA = setB;
+            setB = temp;
+        }
+        if (top + 2 > history.length) history = Arrays.copyOf(history, history.length * 2);
+        history[top++] = setB;
+        history[top++] = vals[setB];
+        vals[setA] += vals[setB];
+        vals[setB] = setA;
+        components--;
+        return true;
+    }
+
+    int find(int i) {
+        while (vals[i] >= 0) i = vals[i];
+        return i;
+    }
+
+    int snapshot() {
+        return top;
+    }
+
+    void rollback(int snapshot) {
+        while (top > snapshot) {
+            int oldSize = history[--top], setB = history[--top];
+            int setA = vals[setB];
+            vals[setA] -= oldSize;
+            vals[setB] = oldSize;
+            components++;
+        }
+    }
+}
@@ -1,52 +1,117 @@
+import java.util.*;
+import java.util.function.IntBinaryOperator;
+import java.util.stream.IntStream;
+
 /**
  * Standard implementation of a segment tree. This segment tree does NOT have deltaing (check
  * SegmentTreeDelta for that). So, it only supports point updates and range queries.
  *
- * To modify the operation (default is set i to v, and sum [l, r]), change the mergeVals()
- * function, and change what happens when lb == ub in update(). You may need to change the
- * 'null value' in the query method too.
+ * This version is iterative (bottom-up): the leaves are at vals[size..2*size-1] and node n
+ * has children 2n and 2n+1, so it only needs 2N slots and no recursion. The operation is
+ * passed in with its identity value (default is set i to v, and sum [l, r]). It must be
+ * associative, but doesn't have to be commutative (the left and right halves of a query are
+ * kept apart).
+ *
+ * See LongSegmentTree and DoubleSegmentTree for the long / double versions.
+ *
+ * Examples:
+ * new SegmentTree(n) - sum
+ * new SegmentTree(n, Math::min, Integer.MAX_VALUE) - min
+ * new SegmentTree(n, Math::max, Integer.MIN_VALUE) - max
+ * new SegmentTree(n, SegmentTree::gcd, 0) - gcd
  *
  * Methods:
  * update(i, v) - Updates the value of index i to v (absolute, not relative!). Runs in O(log(N)).
  * query(l, r) - Returns the query result from [l, r] inclusive. Runs in O(log(N)).
+ * updateAll(idx, v) - Does update(idx[j], v[j]) for every j, one tree level at a time (each
+ * parent is only recomputed once). Sort idx first to get that benefit. Runs in O(K * log(N / K)).
+ * queryAll(l, r) - Returns query(l[j], r[j]) for every j. Big batches run in parallel.
  *
- * Memory: O(4N)
+ * Memory: O(2N)
  */
 
 class SegmentTree {
-    int size;
+    int size, identity;
     int[] vals;
+    IntBinaryOperator op;
+
+    // Batches with at least this many queries are split across threads
+    static final int PARALLEL_THRESHOLD = 1 << 14;
 
     SegmentTree(int size) {
+        this(size, Integer::sum, 0);
+    }
+
+    SegmentTree(int size, IntBinaryOperator op, int identity) {
         this.size = size;
-        vals = new int[size * 4 + 1];
+        this.op = op;
+        this.identity = identity;
+        vals = new int[size * 2];
+        Arrays.fill(vals, identity);
+    }
+
+    /**
+     * Builds the tree from init in O(N).
+     */
+    SegmentTree(int[] init, IntBinaryOperator op, int identity) {
+        this(init.length, op, identity);
+        System.arraycopy(init, 0, vals, size, size);
+        for (int i = size - 1; i > 0; i--) vals[i] = op.applyAsInt(vals[i*2], vals[i*2+1]);
     }
 
-    int mergeVals(int a, int b) {
-        return a + b;
+    SegmentTree(int[] init) {
+        this(init, Integer::sum, 0);
     }
 
     void update(int i, int v) {
-        update(1, 0, size - 1, i, v);
+        i += size;
+        vals[i] = v;
+        for (i >>= 1; i > 0; i >>= 1) vals[i] = op.applyAsInt(vals[i*2], vals[i*2+1]);
     }
 
-    void update(int n, int lb, int ub, int i, int v) {
-        if (lb == ub) {
-            vals[n] = v;
-            return;
+    int query(int l, int r) {
+        int resL = identity, resR = identity;
+        for (l += size, r += size + 1; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) resL = op.applyAsInt(resL, vals[l++]);
+            if ((r & 1) == 1) resR = op.applyAsInt(vals[--r], resR);
         }
-        if ((lb+ub)/2 < i) update(n*2+1, (lb+ub)/2+1, ub, i, v);
-        else update(n*2, lb, (lb+ub)/2, i, v);
-        vals[n] = mergeVals(vals[n*2], vals[n*2+1]);
+        return op.applyAsInt(resL, resR);
     }
 
-    int query(int l, int r) {
-        return query(1, 0, size - 1, l, r);
+    void updateAll(int[] idx, int[] v) {
+        int[] pos = new int[idx.length];
+        for (int j = 0; j < idx.length; j++) {
+            pos[j] = idx[j] + size;
+            vals[pos[j]] = v[j];
+        }
+        // Move up one level at a time, skipping parents that were just recomputed
+        int m = idx.length;
+        while (m > 0) {
+            int k = 0;
+            for (int j = 0; j < m; j++) {
+                int p = pos[j] >> 1;
+                if (p == 0 || (k > 0 && pos[k-1] == p)) continue;
+                vals[p] = op.applyAsInt(vals[p*2], vals[p*2+1]);
+                pos[k++] = p;
+            }
+            m = k;
+        }
     }
 
-    int query(int n, int lb, int ub, int l, int r) {
-        if (lb > r || ub < l) return 0;
-        else if (lb >= l && ub <= r) return vals[n];
-        else return mergeVals(query(n*2, lb, (lb+ub)/2, l, r), query(n*2+1, (lb+ub)/2+1, ub, l, r));
+    int[] queryAll(int[] l, int[] r) {
+        int[] res = new int[l.length];
+        IntStream range = IntStream.range(0, l.length);
+        if (l.length >= PARALLEL_THRESHOLD) range = range.parallel();
+        range.forEach(j -> res[j] = query(l[j], r[j]));
+        return res;
+    }
+
+    static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return Math.abs(a);
     }
 }
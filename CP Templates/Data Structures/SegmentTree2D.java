@@ -0,0 +1,85 @@
+import java.util.*;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * 2D segment tree over an R x C grid, for operations that can't be undone like min / max
+ * (use BIT2D for sums). It's SegmentTree applied twice: an outer bottom-up tree over the rows,
+ * where every outer node holds a whole bottom-up tree over the columns. Everything is in one
+ * flat int[] of size 2R x 2C, with node (i, j) at vals[i * 2C + j].
+ *
+ * The operation must be associative and commutative, and is passed in with its identity value
+ * (default is min).
+ *
+ * Methods:
+ * update(r, c, v) - Updates the value of cell (r, c) to v. Runs in O(log(R) * log(C)).
+ * query(r1, c1, r2, c2) - Returns the query result from the rectangle [r1, r2] x [c1, c2]
+ * inclusive. Runs in O(log(R) * log(C)).
+ *
+ * Memory: O(4 * R * C) (a 4096 x 4096 grid takes 256 MB)
+ */
+
+class SegmentTree2D {
+    int R, C, W, identity;
+    int[] vals;
+    IntBinaryOperator op;
+
+    SegmentTree2D(int R, int C) {
+        this(R, C, Math::min, Integer.MAX_VALUE);
+    }
+
+    SegmentTree2D(int R, int C, IntBinaryOperator op, int identity) {
+        this.R = R;
+        this.C = C;
+        this.op = op;
+        this.identity = identity;
+        W = C * 2;
+        vals = new int[R * 2 * W];
+        Arrays.fill(vals, identity);
+    }
+
+    /**
+     * Builds the tree from init (R x C, zero-indexed) in O(R * C).
+     */
+    SegmentTree2D(int[][] init, IntBinaryOperator op, int identity) {
+        this(init.length, init[0].length, op, identity);
+        for (int r = 0; r < R; r++) {
+            int row = (R + r) * W;
+            System.arraycopy(init[r], 0, vals, row + C, C);
+            for (int j = C - 1; j > 0; j--) vals[row + j] = op.applyAsInt(vals[row + j*2], vals[row + j*2+1]);
+        }
+        for (int i = R - 1; i > 0; i--) {
+            for (int j = 1; j < W; j++) vals[i * W + j] = op.applyAsInt(vals[i*2 * W + j], vals[(i*2+1) * W + j]);
+        }
+    }
+
+    SegmentTree2D(int[][] init) {
+        this(init, Math::min, Integer.MAX_VALUE);
+    }
+
+    void update(int r, int c, int v) {
+        int i = r + R, row = i * W;
+        vals[row + c + C] = v;
+        for (int j = (c + C) >> 1; j > 0; j >>= 1) vals[row + j] = op.applyAsInt(vals[row + j*2], vals[row + j*2+1]);
+        for (i >>= 1; i > 0; i >>= 1) {
+            for (int j = c + C; j > 0; j >>= 1) vals[i * W + j] = op.applyAsInt(vals[i*2 * W + j], vals[(i*2+1) * W + j]);
+        }
+    }
+
+    int query(int r1, int c1, int r2, int c2) {
+        int res = identity;
+        for (int l = r1 + R, r = r2 + R + 1; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) res = op.applyAsInt(res, queryRow(l++, c1, c2));
+            if ((r & 1) == 1) res = op.applyAsInt(res, queryRow(--r, c1, c2));
+        }
+        return res;
+    }
+
+    int queryRow(int i, int c1, int c2) {
+        int res = identity, row = i * W;
+        for (int l = c1 + C, r = c2 + C + 1; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) res = op.applyAsInt(res, vals[row + l++]);
+            if ((r & 1) == 1) res = op.applyAsInt(res, vals[row + --r]);
+        }
+        return res;
+    }
+}
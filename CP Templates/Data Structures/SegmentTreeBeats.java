@@ -0,0 +1,217 @@
+/**
+ * Segment tree beats (Ji Ruyi's driver). Supports range chmin (a[i] = min(a[i], x)), range
+ * chmax (a[i] = max(a[i], x)) and range add, with sum / min / max queries.
+ *
+ * Each node keeps its max, its second (strictly smaller) max and how many times the max shows
+ * up, and the same for the min. A chmin with x only has to recurse while x <= the second max:
+ * once second max < x < max, only the max values change, so the node's sum drops by
+ * (max - x) * (count of max) and the chmin is kept as a tag (the children are fixed up in
+ * push(), by clamping them to this node's max). Every extra recursion removes a distinct value
+ * from some node, which is why the total work stays small. chmax is the same, mirrored.
+ *
+ * Uses the same layout as SegmentTreeDelta (node n has children 2n and 2n+1), with one
+ * primitive array per field.
+ *
+ * Methods:
+ * chmin(l, r, x) / chmax(l, r, x) - Clamps every value in [l, r] to at most / at least x.
+ * add(l, r, v) - Adds v to every value in [l, r].
+ * querySum(l, r) / queryMin(l, r) / queryMax(l, r) - Returns the sum / min / max of [l, r].
+ * All of these take [l, r] inclusive. Runs in amortized O((N + Q) * log(N)) total (O(log^2(N))
+ * amortized per operation once adds are mixed in).
+ *
+ * Memory: O(4N) for each of the 8 arrays
+ */
+
+class SegmentTreeBeats {
+    static final long NEG_INF = Long.MIN_VALUE, POS_INF = Long.MAX_VALUE;
+    int size;
+    long[] sum, max1, max2, min1, min2, lazy;
+    int[] maxCount, minCount;
+
+    SegmentTreeBeats(int size) {
+        this(new long[size]);
+    }
+
+    SegmentTreeBeats(long[] init) {
+        size = init.length;
+        sum = new long[size * 4 + 1];
+        max1 = new long[size * 4 + 1];
+        max2 = new long[size * 4 + 1];
+        min1 = new long[size * 4 + 1];
+        min2 = new long[size * 4 + 1];
+        lazy = new long[size * 4 + 1];
+        maxCount = new int[size * 4 + 1];
+        minCount = new int[size * 4 + 1];
+        if (size == 0) return;
+        build(1, 0, size - 1, init);
+    }
+
+    void build(int n, int lb, int ub, long[] init) {
+        if (lb == ub) {
+            sum[n] = max1[n] = min1[n] = init[lb];
+            max2[n] = NEG_INF;
+            min2[n] = POS_INF;
+            maxCount[n] = minCount[n] = 1;
+            return;
+        }
+        build(n*2, lb, (lb+ub)/2, init);
+        build(n*2+1, (lb+ub)/2+1, ub, init);
+        pull(n);
+    }
+
+    void pull(int n) {
+        int l = n*2, r = n*2+1;
+        sum[n] = sum[l] + sum[r];
+        if (max1[l] == max1[r]) {
+            max1[n] = max1[l];
+            max2[n] = Math.max(max2[l], max2[r]);
+            maxCount[n] = maxCount[l] + maxCount[r];
+        } else if (max1[l] > max1[r]) {
+            max1[n] = max1[l];
+            max2[n] = Math.max(max2[l], max1[r]);
+            maxCount[n] = maxCount[l];
+        } else {
+            max1[n] = max1[r];
+            max2[n] = Math.max(max1[l], max2[r]);
+            maxCount[n] = maxCount[r];
+        }
+        if (min1[l] == min1[r]) {
+            min1[n] = min1[l];
+            min2[n] = Math.min(min2[l], min2[r]);
+            minCount[n] = minCount[l] + minCount[r];
+        } else if (min1[l] < min1[r]) {
+            min1[n] = min1[l];
+            min2[n] = Math.min(min2[l], min1[r]);
+            minCount[n] = minCount[l];
+        } else {
+            min1[n] = min1[r];
+            min2[n] = Math.min(min1[l], min2[r]);
+            minCount[n] = minCount[r];
+        }
+    }
+
+    void applyAdd(int n, int len, long v) {
+        sum[n] += v * len;
+        max1[n] += v;
+        if (max2[n] != NEG_INF) max2[n] += v;
+        min1[n] += v;
+        if (min2[n] != POS_INF) min2[n] += v;
+        lazy[n] += v;
+    }
+
+    /**
+     * Lowers the max of node n to x (only valid when max2 < x < max1).
+     */
+    void applyChmin(int n, long x) {
+        sum[n] -= (max1[n] - x) * maxCount[n];
+        // The min might be one of the values that changed
+        if (min1[n] == max1[n]) min1[n] = x;
+        else if (min2[n] == max1[n]) min2[n] = x;
+        max1[n] = x;
+    }
+
+    /**
+     * Raises the min of node n to x (only valid when min1 < x < min2).
+     */
+    void applyChmax(int n, long x) {
+        sum[n] += (x - min1[n]) * minCount[n];
+        if (max1[n] == min1[n]) max1[n] = x;
+        else if (max2[n] == min1[n]) max2[n] = x;
+        min1[n] = x;
+    }
+
+    void push(int n, int lb, int ub) {
+        int l = n*2, r = n*2+1;
+        if (lazy[n] != 0) {
+            applyAdd(l, (lb+ub)/2 - lb + 1, lazy[n]);
+            applyAdd(r, ub - (lb+ub)/2, lazy[n]);
+            lazy[n] = 0;
+        }
+        // A child whose max is above this node's max still has a chmin waiting (same for chmax)
+        if (max1[l] > max1[n]) applyChmin(l, max1[n]);
+        if (max1[r] > max1[n]) applyChmin(r, max1[n]);
+        if (min1[l] < min1[n]) applyChmax(l, min1[n]);
+        if (min1[r] < min1[n]) applyChmax(r, min1[n]);
+    }
+
+    void chmin(int l, int r, long x) {
+        chmin(1, 0, size - 1, l, r, x);
+    }
+
+    void chmin(int n, int lb, int ub, int l, int r, long x) {
+        if (lb > r || ub < l || max1[n] <= x) return;
+        else if (lb >= l && ub <= r && max2[n] < x) {
+            applyChmin(n, x);
+            return;
+        }
+        push(n, lb, ub);
+        chmin(n*2, lb, (lb+ub)/2, l, r, x);
+        chmin(n*2+1, (lb+ub)/2+1, ub, l, r, x);
+        pull(n);
+    }
+
+    void chmax(int l, int r, long x) {
+        chmax(1, 0, size - 1, l, r, x);
+    }
+
+    void chmax(int n, int lb, int ub, int l, int r, long x) {
+        if (lb > r || ub < l || min1[n] >= x) return;
+        else if (lb >= l && ub <= r && min2[n] > x) {
+            applyChmax(n, x);
+            return;
+        }
+        push(n, lb, ub);
+        chmax(n*2, lb, (lb+ub)/2, l, r, x);
+        chmax(n*2+1, (lb+ub)/2+1, ub, l, r, x);
+        pull(n);
+    }
+
+    void add(int l, int r, long v) {
+        add(1, 0, size - 1, l, r, v);
+    }
+
+    void add(int n, int lb, int ub, int l, int r, long v) {
+        if (lb > r || ub < l) return;
+        else if (lb >= l && ub <= r) {
+            applyAdd(n, ub - lb + 1, v);
+            return;
+        }
+        push(n, lb, ub);
+        add(n*2, lb, (lb+ub)/2, l, r, v);
+        add(n*2+1, (lb+ub)/2+1, ub, l, r, v);
+        pull(n);
+    }
+
+    long querySum(int l, int r) {
+        return querySum(1, 0, size - 1, l, r);
+    }
+
+    long querySum(int n, int lb, int ub, int l, int r) {
+        if (lb > r || ub < l) return 0;
+        else if (lb >= l && ub <= r) return sum[n];
+        push(n, lb, ub);
+        return querySum(n*2, lb, (lb+ub)/2, l, r) + querySum(n*2+1, (lb+ub)/2+1, ub, l, r);
+    }
+
+    long queryMin(int l, int r) {
+        return queryMin(1, 0, size - 1, l, r);
+    }
+
+    long queryMin(int n, int lb, int ub, int l, int r) {
+        if (lb > r || ub < l) return POS_INF;
+        else if (lb >= l && ub <= r) return min1[n];
+        push(n, lb, ub);
+        return Math.min(queryMin(n*2, lb, (lb+ub)/2, l, r), queryMin(n*2+1, (lb+ub)/2+1, ub, l, r));
+    }
+
+    long queryMax(int l, int r) {
+        return queryMax(1, 0, size - 1, l, r);
+    }
+
+    long queryMax(int n, int lb, int ub, int l, int r) {
+        if (lb > r || ub < l) return NEG_INF;
+        else if (lb >= l && ub <= r) return max1[n];
+        push(n, lb, ub);
+        return Math.max(queryMax(n*2, lb, (lb+ub)/2, l, r), queryMax(n*2+1, (lb+ub)/2+1, ub, l, r));
+    }
+}
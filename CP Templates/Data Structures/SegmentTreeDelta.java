@@ -4,9 +4,10 @@ import java.util.*;
  * Standard implementation of a segment tree with deltaing. Supports range update and range
  * query operations.
  *
- * To modify the operation (default is set i to v, and sum [l, r]), change the mergeVals()
+ * To modify the operation (default is add v to [l, r], and sum [l, r]), change the mergeVals()
  * and update() functions. The propagate function should also be changed. If needed, change
- * the 'null value' in query() to something else.
+ * the 'null value' in query() to something else. (For anything fancier, like range assign or
+ * affine updates, use LazySegmentTree. For range chmin / chmax, use SegmentTreeBeats.)
  *
  * Methods:
  * update(l, r, v) - Updates the range [l, r] with v. Runs in O(log(N)).
@@ -29,10 +30,11 @@ class SegmentTreeDelta {
         return a + b;
     }
 
-    void propagate(int n) {
+    void propagate(int n, int lb, int ub) {
         if (delta[n] != 0) {
-            vals[n*2] += delta[n];
-            vals[n*2+1] += delta[n];
+            // Each child's sum goes up by delta for every index in it
+            vals[n*2] += delta[n] * ((lb+ub)/2 - lb + 1);
+            vals[n*2+1] += delta[n] * (ub - (lb+ub)/2);
             delta[n*2] += delta[n];
             delta[n*2+1] += delta[n];
             delta[n] = 0;
@@ -46,11 +48,11 @@ class SegmentTreeDelta {
     void update(int n, int lb, int ub, int l, int r, int v) {
         if (lb > r || ub < l) return;
         else if (lb >= l && ub <= r) {
-            vals[n] += v;
+            vals[n] += v * (ub - lb + 1);
             delta[n] += v;
             return;
         }
-        propagate(n);
+        propagate(n, lb, ub);
         update(n*2, lb, (lb+ub)/2, l, r, v);
         update(n*2+1, (lb+ub)/2+1, ub, l, r, v);
         vals[n] = mergeVals(vals[n*2], vals[n*2+1]);
@@ -63,7 +65,7 @@ class SegmentTreeDelta {
     int query(int n, int lb, int ub, int l, int r) {
         if (lb > r || ub < l) return 0;
         else if (lb >= l && ub <= r) return vals[n];
-        propagate(n);
+        propagate(n, lb, ub);
         return mergeVals(query(n*2, lb, (lb+ub)/2, l, r), query(n*2+1, (lb+ub)/2+1, ub, l, r));
     }
 }
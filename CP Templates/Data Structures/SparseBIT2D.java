@@ -0,0 +1,111 @@
+import java.util.*;
+
+/**
+ * Offline 2D BIT (sum) for sparse points with big coordinates. Every point that will ever be
+ * updated must be given to the constructor. The x coordinates are compressed, and each node
+ * of the BIT over x only keeps a 1D BIT over the y coordinates of the points that land in it.
+ * Those are all stored back to back (like CSRGraph), with node i using ys / vals from
+ * start[i] to start[i+1].
+ *
+ * Methods:
+ * add(x, y, v) - Adds v to point (x, y), which must be one of the points given to the
+ * constructor. Runs in O(log^2(P)).
+ * query(x1, y1, x2, y2) - Returns the sum of the points in [x1, x2] x [y1, y2] inclusive (any
+ * coordinates, not just the given ones). Runs in O(log^2(P)).
+ *
+ * Memory: O(P * log(P))
+ */
+
+public class SparseBIT2D {
+    int nx;
+    int[] xs, start, ys;
+    long[] vals;
+
+    SparseBIT2D(int[] px, int[] py) {
+        xs = Arrays.stream(px).sorted().distinct().toArray();
+        nx = xs.length;
+        // Every point goes into O(log(P)) nodes
+        start = new int[nx + 2];
+        for (int p = 0; p < px.length; p++) {
+            for (int i = indexOf(px[p]); i <= nx; i += Integer.lowestOneBit(i)) start[i + 1]++;
+        }
+        for (int i = 1; i <= nx; i++) start[i + 1] += start[i];
+        ys = new int[start[nx + 1]];
+        int[] fill = Arrays.copyOf(start, nx + 1);
+        for (int p = 0; p < px.length; p++) {
+            for (int i = indexOf(px[p]); i <= nx; i += Integer.lowestOneBit(i)) ys[fill[i]++] = py[p];
+        }
+        // Sort each node's list and remove duplicates, shifting everything down
+        int w = 0;
+        for (int i = 1; i <= nx; i++) {
+            int s = start[i], e = start[i + 1];
+            Arrays.sort(ys, s, e);
+            start[i] = w;
+            for (int k = s; k < e; k++) {
+                if (k == s || ys[k] != ys[k - 1]) ys[w++] = ys[k];
+            }
+        }
+        start[nx + 1] = w;
+        ys = Arrays.copyOf(ys, w);
+        vals = new long[w];
+    }
+
+    void add(int x, int y, long v) {
+        for (int i = indexOf(x); i <= nx; i += Integer.lowestOneBit(i)) {
+            int s = start[i], len = start[i + 1] - s;
+            int j = Arrays.binarySearch(ys, s, start[i + 1], y) - s + 1;
+            if (j <= 0) throw new IllegalArgumentException("(" + x + ", " + y + ") wasn't given to the constructor");
+            for (; j <= len; j += Integer.lowestOneBit(j)) vals[s + j - 1] += v;
+        }
+    }
+
+    /**
+     * Returns the sum of the points with x' <= x and y' <= y.
+     */
+    long query0(int x, int y) {
+        long res = 0;
+        for (int i = upperBound(xs, 0, nx, x); i > 0; i -= Integer.lowestOneBit(i)) {
+            int s = start[i];
+            for (int j = upperBound(ys, s, start[i + 1], y) - s; j > 0; j -= Integer.lowestOneBit(j)) res += vals[s + j - 1];
+        }
+        return res;
+    }
+
+    long query(int x1, int y1, int x2, int y2) {
+        if (x1 > x2 || y1 > y2) return 0;
+        return query0(x2, y2) - query0(x1 - 1, y2) - query0(x2, y1 - 1) + query0(x1 - 1, y1 - 1);
+    }
+
+    /**
+     * Returns the (one-indexed) compressed index of x.
+     */
+    int indexOf(int x) {
+        int i = Arrays.binarySearch(xs, x);
+        if (i < 0) throw new IllegalArgumentException("x = " + x + " wasn't given to the constructor");
+        return i + 1;
+    }
+
+    /**
+     * Returns the first index in a[from, to) with a value >= key (a must be sorted).
+     */
+    static int lowerBound(int[] a, int from, int to, int key) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (a[mid] < key) from = mid + 1;
+            else to = mid;
+        }
+        return from;
+    }
+
+    /**
+     * Returns the first index in a[from, to) with a value > key (a must be sorted).
+     */
+    static int upperBound(int[] a, int from, int to, int key) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (a[mid] <= key) from = mid + 1;
+            else to = mid;
+        }
+        return from;
+    }
+}
@@ -0,0 +1,172 @@
+import java.util.*;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Offline 2D segment tree for sparse points with big coordinates, for operations that can't
+ * be undone like min / max (use SparseBIT2D for sums). Every point that will ever be updated
+ * must be given to the constructor, with its starting value. The x coordinates are compressed
+ * into an outer bottom-up tree (see SegmentTree), and each outer node only keeps a bottom-up
+ * tree over the sorted y coordinates of the points below it. Node i's y coordinates are at
+ * ys[start[i]..start[i+1]), and its inner tree is at vals[2 * start[i]..2 * start[i+1]).
+ *
+ * The operation must be associative and commutative, and is passed in with its identity value
+ * (default is min). Points given more than once start with the op of their values.
+ *
+ * Methods:
+ * update(x, y, v) - Updates the value of point (x, y) to v. The point must be one of the
+ * points given to the constructor. Runs in O(log^2(P)).
+ * query(x1, y1, x2, y2) - Returns the query result from the points in [x1, x2] x [y1, y2]
+ * inclusive (any coordinates, not just the given ones). Runs in O(log^2(P)).
+ *
+ * Memory: O(P * log(P))
+ */
+
+class SparseSegmentTree2D {
+    int nx, identity;
+    int[] xs, start, ys, vals;
+    IntBinaryOperator op;
+
+    SparseSegmentTree2D(int[] px, int[] py, int[] pv) {
+        this(px, py, pv, Math::min, Integer.MAX_VALUE);
+    }
+
+    SparseSegmentTree2D(int[] px, int[] py, int[] pv, IntBinaryOperator op, int identity) {
+        this.op = op;
+        this.identity = identity;
+        xs = Arrays.stream(px).sorted().distinct().toArray();
+        nx = xs.length;
+        // Sorted y's (and their values) for every node, leaves first
+        int[][] nodeYs = new int[nx * 2][], nodeVals = new int[nx * 2][];
+        Integer[] order = new Integer[px.length];
+        for (int p = 0; p < px.length; p++) order[p] = p;
+        Arrays.sort(order, (a, b) -> px[a] != px[b] ? Integer.compare(px[a], px[b]) : Integer.compare(py[a], py[b]));
+        for (int p = 0, k = 0; p < order.length; k++) {
+            int q = p, distinct = 0;
+            while (q < order.length && px[order[q]] == xs[k]) {
+                if (q == p || py[order[q]] != py[order[q - 1]]) distinct++;
+                q++;
+            }
+            int[] ly = new int[distinct], lv = new int[distinct];
+            for (int j = -1; p < q; p++) {
+                int y = py[order[p]], v = pv[order[p]];
+                if (j >= 0 && ly[j] == y) lv[j] = op.applyAsInt(lv[j], v);
+                else {
+                    ly[++j] = y;
+                    lv[j] = v;
+                }
+            }
+            nodeYs[nx + k] = ly;
+            nodeVals[nx + k] = lv;
+        }
+        for (int i = nx - 1; i > 0; i--) merge(nodeYs, nodeVals, i);
+
+        start = new int[nx * 2 + 1];
+        for (int i = 1; i < nx * 2; i++) start[i + 1] = start[i] + nodeYs[i].length;
+        ys = new int[start[nx * 2]];
+        vals = new int[ys.length * 2];
+        for (int i = 1; i < nx * 2; i++) {
+            int len = nodeYs[i].length, off = start[i] * 2;
+            System.arraycopy(nodeYs[i], 0, ys, start[i], len);
+            System.arraycopy(nodeVals[i], 0, vals, off + len, len);
+            vals[off] = identity;
+            for (int t = len - 1; t > 0; t--) vals[off + t] = op.applyAsInt(vals[off + t*2], vals[off + t*2+1]);
+        }
+    }
+
+    /**
+     * Makes node i's list by merging its children's lists.
+     */
+    void merge(int[][] nodeYs, int[][] nodeVals, int i) {
+        int[] ay = nodeYs[i*2], av = nodeVals[i*2], by = nodeYs[i*2+1], bv = nodeVals[i*2+1];
+        int[] ly = new int[ay.length + by.length], lv = new int[ly.length];
+        int a = 0, b = 0, len = 0;
+        while (a < ay.length || b < by.length) {
+            if (b == by.length || (a < ay.length && ay[a] < by[b])) {
+                ly[len] = ay[a];
+                lv[len++] = av[a++];
+            } else if (a == ay.length || by[b] < ay[a]) {
+                ly[len] = by[b];
+                lv[len++] = bv[b++];
+            } else {
+                ly[len] = ay[a];
+                lv[len++] = op.applyAsInt(av[a++], bv[b++]);
+            }
+        }
+        nodeYs[i] = Arrays.copyOf(ly, len);
+        nodeVals[i] = Arrays.copyOf(lv, len);
+    }
+
+    void update(int x, int y, int v) {
+        int k = Arrays.binarySearch(xs, x);
+        if (k < 0) throw new IllegalArgumentException("x = " + x + " wasn't given to the constructor");
+        int i = nx + k;
+        // Check y at the leaf, before any node is changed (every ancestor has it if the leaf does)
+        if (Arrays.binarySearch(ys, start[i], start[i + 1], y) < 0) {
+            throw new IllegalArgumentException("(" + x + ", " + y + ") wasn't given to the constructor");
+        }
+        set(i, y, v);
+        for (i >>= 1; i > 0; i >>= 1) set(i, y, op.applyAsInt(get(i*2, y), get(i*2+1, y)));
+    }
+
+    int query(int x1, int y1, int x2, int y2) {
+        int res = identity;
+        if (x1 > x2 || y1 > y2) return res;
+        int l = lowerBound(xs, 0, nx, x1) + nx, r = upperBound(xs, 0, nx, x2) + nx;
+        for (; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) res = op.applyAsInt(res, queryNode(l++, y1, y2));
+            if ((r & 1) == 1) res = op.applyAsInt(res, queryNode(--r, y1, y2));
+        }
+        return res;
+    }
+
+    int queryNode(int i, int y1, int y2) {
+        int s = start[i], len = start[i + 1] - s, off = s * 2, res = identity;
+        int l = lowerBound(ys, s, s + len, y1) - s + len;
+        int r = upperBound(ys, s, s + len, y2) - s + len;
+        for (; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) res = op.applyAsInt(res, vals[off + l++]);
+            if ((r & 1) == 1) res = op.applyAsInt(res, vals[off + --r]);
+        }
+        return res;
+    }
+
+    /**
+     * Returns the value at y in node i's inner tree (identity if y isn't there).
+     */
+    int get(int i, int y) {
+        int s = start[i], len = start[i + 1] - s;
+        int j = Arrays.binarySearch(ys, s, s + len, y);
+        return j < 0 ? identity : vals[s * 2 + len + j - s];
+    }
+
+    void set(int i, int y, int v) {
+        int s = start[i], len = start[i + 1] - s, off = s * 2;
+        int t = Arrays.binarySearch(ys, s, s + len, y) - s + len;
+        vals[off + t] = v;
+        for (t >>= 1; t > 0; t >>= 1) vals[off + t] = op.applyAsInt(vals[off + t*2], vals[off + t*2+1]);
+    }
+
+    /**
+     * Returns the first index in a[from, to) with a value >= key (a must be sorted).
+     */
+    private static int lowerBound(int[] a, int from, int to, int key) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (a[mid] < key) from = mid + 1;
+            else to = mid;
+        }
+        return from;
+    }
+
+    /**
+     * Returns the first index in a[from, to) with a value > key (a must be sorted).
+     */
+    private static int upperBound(int[] a, int from, int to, int key) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (a[mid] <= key) from = mid + 1;
+            else to = mid;
+        }
+        return from;
+    }
+}
@@ -0,0 +1,202 @@
+import java.util.*;
+
+/**
+ * Wavelet matrix over a static int array, for "how many values in [l, r] are <= x" and
+ * "k-th smallest in [l, r]" queries. The values are compressed to [0, sigma) first. Then for
+ * each bit, from the highest down, level b has one bit per index (bit b of the value there),
+ * and the next level stably moves every value with a 0 bit in front of every value with a 1
+ * bit. Following an index range down the levels only takes rank queries (how many 0s come
+ * before position i), so every query is O(log(sigma)) rank calls.
+ *
+ * The bits are packed 64 to a long, with a running count of 1s stored once every 512 bits, so
+ * the whole thing is about N * log(sigma) * 1.07 bits. (MergeSortTree answers the same
+ * queries with N * log(N) ints; run benchmark() to compare.)
+ *
+ * Methods:
+ * countLE(l, r, x) - Returns how many values in [l, r] inclusive are <= x. Runs in
+ * O(log(sigma)).
+ * kthSmallest(l, r, k) - Returns the k-th smallest value (one-indexed) in [l, r] inclusive.
+ * Runs in O(log(sigma)).
+ *
+ * Memory: O(N * log(sigma)) bits
+ */
+
+class WaveletMatrix {
+    int N, bits;
+    int[] sorted, zeros;
+    BitVector[] levels;
+
+    WaveletMatrix(int[] a) {
+        N = a.length;
+        // Compress with one sort of (value, index) pairs (binary searching every value is
+        // mostly cache misses for big N)
+        long[] pairs = new long[N];
+        for (int i = 0; i < N; i++) pairs[i] = (long) a[i] << 32 | i;
+        Arrays.sort(pairs);
+        int[] curr = new int[N], next = new int[N];
+        sorted = new int[N];
+        int sigma = 0;
+        for (int i = 0; i < N; i++) {
+            int v = (int) (pairs[i] >> 32);
+            if (sigma == 0 || sorted[sigma - 1] != v) sorted[sigma++] = v;
+            curr[(int) pairs[i]] = sigma - 1;
+        }
+        pairs = null;
+        sorted = Arrays.copyOf(sorted, sigma);
+        bits = Math.max(32 - Integer.numberOfLeadingZeros(sigma - 1), 1);
+        levels = new BitVector[bits];
+        zeros = new int[bits];
+        for (int b = bits - 1; b >= 0; b--) {
+            BitVector bv = new BitVector(N);
+            for (int i = 0; i < N; i++) {
+                if ((curr[i] >> b & 1) == 1) bv.set(i);
+            }
+            bv.build();
+            levels[b] = bv;
+            zeros[b] = N - bv.rank1(N);
+            // Stable partition: 0 bits first, then 1 bits
+            int z = 0, o = zeros[b];
+            for (int i = 0; i < N; i++) {
+                if ((curr[i] >> b & 1) == 0) next[z++] = curr[i];
+                else next[o++] = curr[i];
+            }
+            int[] temp = curr;
+            curr = next;
+            next = temp;
+        }
+    }
+
+    int countLE(int l, int r, int x) {
+        // Count compressed values < c
+        int c = upperBound(sorted, 0, sorted.length, x);
+        r++;
+        if (c >> bits != 0) return r - l;
+        int res = 0;
+        for (int b = bits - 1; b >= 0; b--) {
+            int zl = l - levels[b].rank1(l), zr = r - levels[b].rank1(r);
+            if ((c >> b & 1) == 1) {
+                res += zr - zl;
+                l = zeros[b] + l - zl;
+                r = zeros[b] + r - zr;
+            } else {
+                l = zl;
+                r = zr;
+            }
+        }
+        return res;
+    }
+
+    int kthSmallest(int l, int r, int k) {
+        r++;
+        int res = 0;
+        for (int b = bits - 1; b >= 0; b--) {
+            int zl = l - levels[b].rank1(l), zr = r - levels[b].rank1(r);
+            if (k <= zr - zl) {
+                l = zl;
+                r = zr;
+            } else {
+                k -= zr - zl;
+                l = zeros[b] + l - zl;
+                r = zeros[b] + r - zr;
+                res |= 1 << b;
+            }
+        }
+        return sorted[res];
+    }
+
+    long memoryBytes() {
+        long bytes = 4L * (sorted.length + zeros.length);
+        for (BitVector bv : levels) bytes += 8L * bv.words.length + 4L * bv.blockRank.length;
+        return bytes;
+    }
+
+    /**
+     * Returns the first index in a[from, to) with a value > key (a must be sorted).
+     */
+    static int upperBound(int[] a, int from, int to, int key) {
+        int lb = from, ub = to;
+        while (lb < ub) {
+            int mid = (lb + ub) >>> 1;
+            if (a[mid] <= key) lb = mid + 1;
+            else ub = mid;
+        }
+        return lb;
+    }
+
+    /**
+     * Bit-packed bitvector with O(1) rank. blockRank[j] is the number of 1s before bit j * 512.
+     */
+    static class BitVector {
+        long[] words;
+        int[] blockRank;
+
+        BitVector(int size) {
+            words = new long[(size >> 6) + 1];
+            blockRank = new int[(words.length >> 3) + 1];
+        }
+
+        void set(int i) {
+            words[i >> 6] |= 1L << i;
+        }
+
+        void build() {
+            int count = 0;
+            for (int w = 0; w < words.length; w++) {
+                if ((w & 7) == 0) blockRank[w >> 3] = count;
+                count += Long.bitCount(words[w]);
+            }
+        }
+
+        /**
+         * Returns the number of 1s in [0, i).
+         */
+        int rank1(int i) {
+            int w = i >> 6, res = blockRank[w >> 3];
+            for (int j = w & ~7; j < w; j++) res += Long.bitCount(words[j]);
+            return res + Long.bitCount(words[w] & ((1L << i) - 1));
+        }
+    }
+
+    /**
+     * Builds a WaveletMatrix and a MergeSortTree on N random values in [0, sigma), then prints
+     * their memory, build time and query time (Q countLE and Q kthSmallest queries each).
+     */
+    static void benchmark(int N, int sigma, int Q) {
+        Random random = new Random(1);
+        int[] a = new int[N];
+        for (int i = 0; i < N; i++) a[i] = random.nextInt(sigma);
+        int[] l = new int[Q], r = new int[Q], x = new int[Q], k = new int[Q];
+        for (int j = 0; j < Q; j++) {
+            l[j] = random.nextInt(N);
+            r[j] = l[j] + random.nextInt(N - l[j]);
+            x[j] = random.nextInt(sigma);
+            k[j] = random.nextInt(r[j] - l[j] + 1) + 1;
+        }
+        System.out.printf("N = %d, sigma = %d, %d queries of each type\n", N, sigma, Q);
+
+        long startTime = System.currentTimeMillis();
+        WaveletMatrix wm = new WaveletMatrix(a);
+        long buildTime = System.currentTimeMillis() - startTime;
+        startTime = System.currentTimeMillis();
+        long checksum1 = 0;
+        for (int j = 0; j < Q; j++) checksum1 = checksum1 * 31 + wm.countLE(l[j], r[j], x[j]) + wm.kthSmallest(l[j], r[j], k[j]);
+        System.out.printf("WaveletMatrix: %.1f MB, build %d ms, queries %d ms\n", wm.memoryBytes() / 1e6,
+                buildTime, System.currentTimeMillis() - startTime);
+        wm = null;
+
+        startTime = System.currentTimeMillis();
+        MergeSortTree mst = new MergeSortTree(a);
+        buildTime = System.currentTimeMillis() - startTime;
+        startTime = System.currentTimeMillis();
+        long checksum2 = 0;
+        for (int j = 0; j < Q; j++) checksum2 = checksum2 * 31 + mst.countLE(l[j], r[j], x[j]) + mst.kthSmallest(l[j], r[j], k[j]);
+        System.out.printf("MergeSortTree: %.1f MB, build %d ms, queries %d ms\n", mst.memoryBytes() / 1e6,
+                buildTime, System.currentTimeMillis() - startTime);
+        System.out.println(checksum1 == checksum2 ? "Same results\n" : "DIFFERENT results\n");
+    }
+
+    public static void main(String[] args) {
+        benchmark(1000000, 1 << 20, 200000);
+        benchmark(10000000, 1 << 30, 200000);
+    }
+}
@@ -0,0 +1,211 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Delta-stepping parallel single source shortest paths. Nodes are kept in buckets of width
+ * delta by their tentative distance. The smallest non-empty bucket is processed at a time:
+ * its light edges (cost <= delta) are relaxed over and over until the bucket stays empty,
+ * then the heavy edges of every node removed from it are relaxed once. Each relaxation step
+ * is split across the worker threads, and distances are lowered with a CAS, so threads never
+ * block each other.
+ *
+ * delta = 1 behaves like Dial's algorithm (lots of small steps), and delta = infinity behaves
+ * like Bellman-Ford (one huge step). Something around maxCost / average degree is usually a
+ * good start; run benchmark() to tune it.
+ *
+ * The buckets are reused in a circle of min(maxCost / delta + 2, MAX_BUCKETS) slots, and a
+ * slot's list is only made the first time something goes into it. If the circle is capped, one
+ * slot can hold nodes from different laps; those are just left in it until their lap comes
+ * around. So a tiny delta with huge costs works, it's just slow (every empty bucket is still
+ * stepped over).
+ *
+ * Methods:
+ * sssp(start) - Returns the bestDist array from start (same as the one Dijkstra.dijkstra(start,
+ * -1, ...) computes, with Dijkstra.INF for unreachable nodes).
+ *
+ * Runtime: O(M * log(N)) work in practice, spread over the threads
+ * Memory: O(N + M)
+ */
+
+public class DeltaStepping {
+    static final VarHandle DIST = MethodHandles.arrayElementVarHandle(long[].class);
+    static final int MAX_BUCKETS = 1 << 20;
+
+    CSRGraph adj;
+    int N, threads;
+    long delta;
+    ForkJoinPool pool;
+    IntList[] buckets, found;
+    int[] mark;
+    int stamp;
+
+    DeltaStepping(CSRGraph adj, long delta, int threads) {
+        this.adj = adj;
+        this.delta = Math.max(delta, 1);
+        this.threads = threads;
+        N = adj.N;
+        // New distances are at most maxCost + delta ahead of the current bucket, so the
+        // buckets can be reused in a circle
+        buckets = new IntList[(int) Math.min(adj.maxCost / this.delta + 2, MAX_BUCKETS)];
+        found = new IntList[threads];
+        for (int i = 0; i < threads; i++) found[i] = new IntList();
+        mark = new int[N];
+        if (threads > 1) pool = new ForkJoinPool(threads);
+    }
+
+    long[] sssp(int start) {
+        long[] bestDist = new long[N];
+        Arrays.fill(bestDist, Dijkstra.INF);
+        bestDist[start] = 0;
+        addToBucket(0, start);
+        long remaining = 1;
+        IntList frontier = new IntList(), removed = new IntList();
+        for (long i = 0; remaining > 0; i++) {
+            IntList bucket = buckets[(int) (i % buckets.length)];
+            if (bucket == null || bucket.size == 0) continue;
+            removed.size = 0;
+            int removedStamp = ++stamp;
+            while (true) {
+                // Take out the nodes that really belong to this bucket (skip stale copies, and
+                // keep nodes from a later lap around the circle)
+                int kept = 0;
+                remaining -= bucket.size;
+                int frontierStamp = ++stamp;
+                frontier.size = 0;
+                for (int j = 0; j < bucket.size; j++) {
+                    int n = bucket.vals[j];
+                    long b = bestDist[n] / delta;
+                    if (b > i) bucket.vals[kept++] = n;
+                    if (b != i || mark[n] == frontierStamp) continue;
+                    if (mark[n] != removedStamp) removed.add(n);
+                    mark[n] = frontierStamp;
+                    frontier.add(n);
+                }
+                bucket.size = kept;
+                remaining += kept;
+                if (frontier.size == 0) break;
+                remaining += relax(bestDist, frontier, true);
+                // Nodes in frontier now have the new stamp; mark them as removed again
+                for (int j = 0; j < frontier.size; j++) mark[frontier.vals[j]] = removedStamp;
+            }
+            remaining += relax(bestDist, removed, false);
+        }
+        return bestDist;
+    }
+
+    /**
+     * Relaxes the light (or heavy) edges of every node in nodes. Returns how many nodes were
+     * added to the buckets.
+     */
+    long relax(long[] bestDist, IntList nodes, boolean light) {
+        if (nodes.size == 0) return 0;
+        int parts = Math.min(threads, (nodes.size + 255) / 256);
+        if (parts <= 1) relaxRange(bestDist, nodes, 0, nodes.size, light, found[0]);
+        else {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < parts; t++) {
+                int from = (int) ((long) nodes.size * t / parts), to = (int) ((long) nodes.size * (t+1) / parts);
+                IntList out = found[t];
+                tasks.add(() -> {
+                    relaxRange(bestDist, nodes, from, to, light, out);
+                    return null;
+                });
+            }
+            try {
+                for (Future<Void> f : pool.invokeAll(tasks)) f.get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        // Put every improved node into its (new) bucket
+        long added = 0;
+        for (int t = 0; t < Math.max(parts, 1); t++) {
+            IntList out = found[t];
+            for (int j = 0; j < out.size; j++) {
+                int n = out.vals[j];
+                addToBucket(bestDist[n] / delta, n);
+            }
+            added += out.size;
+            out.size = 0;
+        }
+        return added;
+    }
+
+    void addToBucket(long b, int n) {
+        int i = (int) (b % buckets.length);
+        if (buckets[i] == null) buckets[i] = new IntList();
+        buckets[i].add(n);
+    }
+
+    void relaxRange(long[] bestDist, IntList nodes, int from, int to, boolean light, IntList out) {
+        for (int j = from; j < to; j++) {
+            int c = nodes.vals[j];
+            long d = (long) DIST.getVolatile(bestDist, c);
+            for (int e = adj.start[c]; e < adj.start[c+1]; e++) {
+                if ((adj.cost[e] <= delta) != light) continue;
+                int n = adj.to[e];
+                long nd = d + adj.cost[e], old;
+                while (nd < (old = (long) DIST.getVolatile(bestDist, n))) {
+                    if (DIST.compareAndSet(bestDist, n, old, nd)) {
+                        out.add(n);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    void shutdown() {
+        if (pool != null) pool.shutdown();
+    }
+
+    static class IntList {
+        int size;
+        int[] vals = new int[16];
+
+        void add(int v) {
+            if (size == vals.length) vals = Arrays.copyOf(vals, size * 2);
+            vals[size++] = v;
+        }
+    }
+
+    /**
+     * Times sssp() on a random graph for 1, 2, 4, ... maxThreads threads, and checks every
+     * result against Dijkstra.
+     */
+    static void benchmark(int N, int M, int maxCost, long delta, int maxThreads) {
+        System.out.printf("Delta-stepping on N = %d, M = %d, maxCost = %d, delta = %d\n", N, M, maxCost, delta);
+        Random random = new Random(1);
+        int[] a = new int[M], b = new int[M], c = new int[M];
+        for (int i = 0; i < M; i++) {
+            a[i] = random.nextInt(N);
+            b[i] = random.nextInt(N);
+            c[i] = random.nextInt(maxCost + 1);
+        }
+        CSRGraph adj = new CSRGraph(N, M, a, b, c, true);
+
+        long startTime = System.currentTimeMillis();
+        long[] expected = new long[N];
+        Arrays.fill(expected, Dijkstra.INF);
+        new Dijkstra(adj).dijkstra(0, -1, expected, Dijkstra.newQueue(Dijkstra.QueueType.AUTO, adj));
+        System.out.printf("Dijkstra: %.3f seconds\n", (System.currentTimeMillis() - startTime) / 1000f);
+
+        for (int t = 1; t <= maxThreads; t *= 2) {
+            DeltaStepping ds = new DeltaStepping(adj, delta, t);
+            startTime = System.currentTimeMillis();
+            long[] bestDist = ds.sssp(0);
+            float time = (System.currentTimeMillis() - startTime) / 1000f;
+            ds.shutdown();
+            System.out.printf("%d thread(s): %.3f seconds (%s)\n", t, time,
+                    Arrays.equals(bestDist, expected) ? "correct" : "WRONG");
+        }
+    }
+
+    public static void main(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        benchmark(1000000, 5000000, 1000, 100, threads);
+        benchmark(1000000, 5000000, 1000, 1000, threads);
+    }
+}
@@ -0,0 +1,90 @@
+import java.util.*;
+
+/**
+ * Dial's bucket queue, a monotone priority queue for small integer keys. As long as every
+ * key in the queue is within maxCost of the smallest one (true for Dijkstra when no edge
+ * costs more than maxCost), maxCost + 1 buckets used in a circle are enough. Each bucket is a
+ * doubly linked list stored in primitive arrays, so decrease-key is just moving a node to
+ * another list.
+ *
+ * maxCost can be at most MAX_COST (one int per bucket); use a RadixHeap for bigger costs.
+ *
+ * Methods:
+ * push(n, k) - Inserts node n with key k, or lowers its key to k. Runs in O(1).
+ * poll() - Removes and returns a node with the smallest key. Runs in amortized O(1) (the scan
+ * over empty buckets adds up to O(largest key) in total).
+ * clear() - Empties the queue so it can be reused. Runs in O(maxCost + size).
+ *
+ * Memory: O(N + maxCost)
+ */
+
+public class DialQueue implements NodeQueue {
+    static final long MAX_COST = 1 << 24;
+    int size, B;
+    long curr;
+    int[] head, next, prev;
+    long[] key;
+    boolean[] inQueue;
+
+    DialQueue(int N, long maxCost) {
+        if (maxCost < 0 || maxCost > MAX_COST) {
+            throw new IllegalArgumentException("maxCost = " + maxCost + " is too big for a DialQueue (max " + MAX_COST + ")");
+        }
+        B = (int) maxCost + 1;
+        head = new int[B];
+        Arrays.fill(head, -1);
+        next = new int[N];
+        prev = new int[N];
+        key = new long[N];
+        inQueue = new boolean[N];
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void push(int n, long k) {
+        if (inQueue[n]) {
+            if (k >= key[n]) return;
+            unlink(n);
+        } else {
+            inQueue[n] = true;
+            if (size == 0) curr = k;
+            size++;
+        }
+        if (k < curr) curr = k;
+        key[n] = k;
+        int b = (int) (k % B);
+        prev[n] = -1;
+        next[n] = head[b];
+        if (head[b] != -1) prev[head[b]] = n;
+        head[b] = n;
+    }
+
+    @Override
+    public int poll() {
+        while (head[(int) (curr % B)] == -1) curr++;
+        int n = head[(int) (curr % B)];
+        unlink(n);
+        inQueue[n] = false;
+        size--;
+        return n;
+    }
+
+    @Override
+    public void clear() {
+        for (int b = 0; b < B; b++) {
+            for (int n = head[b]; n != -1; n = next[n]) inQueue[n] = false;
+            head[b] = -1;
+        }
+        size = 0;
+    }
+
+    void unlink(int n) {
+        if (prev[n] != -1) next[prev[n]] = next[n];
+        else head[(int) (key[n] % B)] = next[n];
+        if (next[n] != -1) prev[next[n]] = prev[n];
+    }
+}
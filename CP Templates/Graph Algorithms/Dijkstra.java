@@ -5,8 +5,11 @@ import java.io.*;
  * Dijkstra with an adjacency list / priority queue! Handles everything; multiple
  * edges, self-loops, 0-cost edges? No problem!
  *
- * Note: The graph is undirected by default. To change it to directed, remove the reverse
- * edge when parsing input.
+ * Note: The graph is undirected by default. To change it to directed, pass undirected = false
+ * when building the CSRGraph.
+ *
+ * Note: This needs CSRGraph, NodeQueue, IndexedHeap, DialQueue, RadixHeap, Heuristic and
+ * EdgeListLoader from Graph Algorithms (copy those files too).
  *
  * Input format:
  * N M
@@ -18,37 +21,188 @@ import java.io.*;
  * N is the number of nodes, M is the number of edges.
  * A -> B is an edge in the graph with cost C. (Assumes A and B are offset by +1.)
  *
- * Runtime: O(N * log(M))
+ * The priority queue is picked from the largest edge cost when queueType = AUTO (default): a
+ * DialQueue for small costs (<= DIAL_MAX_COST), and a RadixHeap otherwise. Both are monotone
+ * queues with amortized O(1) / O(log(C)) operations. Set queueType to force one of them, the
+ * IndexedHeap, or the old java.util.PriorityQueue version (useful for benchmarking).
+ *
+ * For point-to-point queries, dijkstra(start, end, mode) can also run a bidirectional search
+ * (forward from start and backward from end at the same time), or an A* search guided by the
+ * heuristic field (ex: Landmarks). Both return the same distance as the normal search, but
+ * usually settle far fewer nodes on big sparse graphs.
+ *
+ * Runtime: O(M * log(N)), or O(M + N * log(C)) with a monotone queue
  */
 
-@SuppressWarnings("unchecked")
 public class Dijkstra {
-    final long INF = 98765432123456789L;
+    static final long INF = 98765432123456789L;
+    static final long DIAL_MAX_COST = 1 << 12;
     int N, M;
-    ArrayList<Pair>[] adj;
+    CSRGraph adj, radj;
+    QueueType queueType = QueueType.AUTO;
+    Heuristic heuristic;
+
+    enum Mode {
+        FORWARD, BIDIRECTIONAL, ASTAR
+    }
+
+    enum QueueType {
+        AUTO, DIAL, RADIX_HEAP, INDEXED_HEAP, PRIORITY_QUEUE
+    }
 
     Dijkstra(BufferedReader in, PrintWriter out) throws IOException {
         StringTokenizer st = new StringTokenizer(in.readLine());
         N = Integer.parseInt(st.nextToken());
         M = Integer.parseInt(st.nextToken());
-        adj = new ArrayList[N];
-        for (int i = 0; i < N; i++) adj[i] = new ArrayList<>(2);
-        int a, b, c;
+        int[] a = new int[M], b = new int[M], c = new int[M];
         for (int i = 0; i < M; i++) {
             st = new StringTokenizer(in.readLine());
-            a = Integer.parseInt(st.nextToken()) - 1;
-            b = Integer.parseInt(st.nextToken()) - 1;
-            c = Integer.parseInt(st.nextToken());
-            adj[a].add(new Pair(b, c));
-            adj[b].add(new Pair(a, c));
+            a[i] = Integer.parseInt(st.nextToken()) - 1;
+            b[i] = Integer.parseInt(st.nextToken()) - 1;
+            c[i] = Integer.parseInt(st.nextToken());
         }
+        adj = new CSRGraph(N, M, a, b, c, true);
+        solve(out);
+    }
+
+    /**
+     * Same as above, but takes the edges from an EdgeListLoader (for huge input files).
+     */
+    Dijkstra(EdgeListLoader in, PrintWriter out) {
+        N = in.N;
+        M = in.M;
+        adj = new CSRGraph(N, M, in.a, in.b, in.c, true);
+        solve(out);
+    }
 
+    /**
+     * Wraps an existing graph, without reading input (for running many queries).
+     */
+    Dijkstra(CSRGraph adj) {
+        this.adj = adj;
+        N = adj.N;
+        M = adj.M;
+    }
+
+    void solve(PrintWriter out) {
         long dist = dijkstra(0, N-1);
         if (dist == INF) out.println(-1);
         else out.println(dist);
     }
 
     long dijkstra(int start, int end) {
+        if (queueType == QueueType.PRIORITY_QUEUE) return dijkstraPQ(start, end);
+        long[] bestDist = new long[N];
+        Arrays.fill(bestDist, INF);
+        return dijkstra(start, end, bestDist, newQueue(queueType, adj));
+    }
+
+    static NodeQueue newQueue(QueueType type, CSRGraph adj) {
+        if (type == QueueType.AUTO) {
+            type = adj.maxCost <= DIAL_MAX_COST ? QueueType.DIAL : QueueType.RADIX_HEAP;
+        }
+        switch (type) {
+            case DIAL: return new DialQueue(adj.N, adj.maxCost);
+            case RADIX_HEAP: return new RadixHeap(adj.N);
+            default: return new IndexedHeap(adj.N);
+        }
+    }
+
+    /**
+     * Runs Dijkstra using the given buffers, so repeated searches don't have to allocate.
+     * bestDist must be filled with INF and pq must be empty. Pass end = -1 to find the
+     * distance to every node. If the search stops early, pq is left non-empty (call clear()).
+     */
+    long dijkstra(int start, int end, long[] bestDist, NodeQueue pq) {
+        bestDist[start] = 0;
+        pq.push(start, 0);
+        while (!pq.isEmpty()) {
+            int c = pq.poll();
+            long d = bestDist[c];
+            if (c == end) return d;  // Path found
+            for (int e = adj.start[c]; e < adj.start[c+1]; e++) {
+                int n = adj.to[e];
+                if (d + adj.cost[e] < bestDist[n]) {
+                    bestDist[n] = d + adj.cost[e];
+                    pq.push(n, bestDist[n]);
+                }
+            }
+        }
+        // No path found
+        return INF;
+    }
+
+    long dijkstra(int start, int end, Mode mode) {
+        switch (mode) {
+            case BIDIRECTIONAL: return bidirectional(start, end);
+            case ASTAR: return aStar(start, end, heuristic);
+            default: return dijkstra(start, end);
+        }
+    }
+
+    /**
+     * Searches forward from start and backward from end, always expanding the side with the
+     * smaller key. best is the shortest start -> end path seen so far through an edge between
+     * the two searches; once the two smallest keys add up to at least best, it's optimal.
+     */
+    long bidirectional(int start, int end) {
+        if (radj == null) radj = adj.reverse();
+        long[] distF = new long[N], distB = new long[N];
+        Arrays.fill(distF, INF);
+        Arrays.fill(distB, INF);
+        IndexedHeap pqF = new IndexedHeap(N), pqB = new IndexedHeap(N);
+        distF[start] = 0;
+        distB[end] = 0;
+        pqF.push(start, 0);
+        pqB.push(end, 0);
+        long best = start == end ? 0 : INF;
+        while (!pqF.isEmpty() && !pqB.isEmpty()) {
+            if (pqF.peekKey() + pqB.peekKey() >= best) break;
+            boolean forward = pqF.peekKey() <= pqB.peekKey();
+            CSRGraph g = forward ? adj : radj;
+            long[] dist = forward ? distF : distB, other = forward ? distB : distF;
+            IndexedHeap pq = forward ? pqF : pqB;
+            int c = pq.poll();
+            long d = dist[c];
+            for (int e = g.start[c]; e < g.start[c+1]; e++) {
+                int n = g.to[e];
+                if (d + g.cost[e] < dist[n]) {
+                    dist[n] = d + g.cost[e];
+                    pq.push(n, dist[n]);
+                }
+                if (other[n] != INF) best = Math.min(d + g.cost[e] + other[n], best);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Dijkstra where each node's key is bestDist + h.estimate(node, end), so the search is
+     * pulled towards end. h must be admissible (see Heuristic).
+     */
+    long aStar(int start, int end, Heuristic h) {
+        long[] bestDist = new long[N];
+        Arrays.fill(bestDist, INF);
+        IndexedHeap pq = new IndexedHeap(N);
+        bestDist[start] = 0;
+        pq.push(start, h.estimate(start, end));
+        while (!pq.isEmpty()) {
+            int c = pq.poll();
+            long d = bestDist[c];
+            if (c == end) return d;  // Path found
+            for (int e = adj.start[c]; e < adj.start[c+1]; e++) {
+                int n = adj.to[e];
+                if (d + adj.cost[e] < bestDist[n]) {
+                    bestDist[n] = d + adj.cost[e];
+                    pq.push(n, bestDist[n] + h.estimate(n, end));
+                }
+            }
+        }
+        // No path found
+        return INF;
+    }
+
+    long dijkstraPQ(int start, int end) {
         PriorityQueue<Pair> pq = new PriorityQueue<>(new Comparator<Pair>() {
             @Override
             public int compare(Pair o1, Pair o2) {
@@ -63,6 +217,85 @@ public class Dijkstra {
         Arrays.fill(bestDist, INF);
         bestDist[start] = 0;
         Pair c;
+        while (!pq.isEmpty()) {
+            c = pq.poll();
+            if (c.c != bestDist[c.n]) continue;
+            if (c.n == end) return c.c;  // Path found
+            for (int e = adj.start[c.n]; e < adj.start[c.n+1]; e++) {
+                int n = adj.to[e];
+                if (c.c + adj.cost[e] < bestDist[n]) {
+                    bestDist[n] = c.c + adj.cost[e];
+                    pq.add(new Pair(n, bestDist[n]));
+                }
+            }
+        }
+        // No path found
+        return INF;
+    }
+
+    /**
+     * Compares the old ArrayList<Pair>[] + PriorityQueue version against CSRGraph + the AUTO
+     * queue on a random undirected graph: heap used by the graph, and time for 5 full searches.
+     */
+    @SuppressWarnings("unchecked")
+    static void benchmark(int N, int M, int maxCost) {
+        Random random = new Random(1);
+        int[] a = new int[M], b = new int[M], c = new int[M];
+        for (int i = 0; i < M; i++) {
+            a[i] = random.nextInt(N);
+            b[i] = random.nextInt(N);
+            c[i] = random.nextInt(maxCost) + 1;
+        }
+        long[] heap = new long[2], times = new long[2], dists = new long[2];
+        for (int mode = 0; mode < 2; mode++) {
+            long before = usedMemory();
+            long startTime = System.currentTimeMillis();
+            ArrayList<Pair>[] list = null;
+            Dijkstra d = null;
+            if (mode == 0) {
+                list = new ArrayList[N];
+                for (int i = 0; i < N; i++) list[i] = new ArrayList<>(2);
+                for (int i = 0; i < M; i++) {
+                    list[a[i]].add(new Pair(b[i], c[i]));
+                    list[b[i]].add(new Pair(a[i], c[i]));
+                }
+            } else {
+                d = new Dijkstra(new CSRGraph(N, M, a, b, c, true));
+            }
+            long buildTime = System.currentTimeMillis() - startTime;
+            heap[mode] = usedMemory() - before;
+            dists[mode] = mode == 0 ? dijkstraList(list, 0, N-1) : d.dijkstra(0, N-1);  // Warm up
+            startTime = System.currentTimeMillis();
+            // Unreachable end, so every node gets evaluated
+            for (int i = 0; i < 5; i++) {
+                if (mode == 0) dijkstraList(list, i, -1);
+                else d.dijkstra(i, -1);
+            }
+            times[mode] = buildTime + System.currentTimeMillis() - startTime;
+            list = null;  // Let the graph be collected before the next measurement
+            d = null;
+        }
+        System.out.printf("N = %d, M = %d: ArrayList %d MB / %d ms, CSR %d MB / %d ms (%s)\n", N, M,
+                heap[0] >> 20, times[0], heap[1] >> 20, times[1],
+                dists[0] == dists[1] ? "same" : "DIFFERENT");
+    }
+
+    static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * The original template: boxed Pair edges and a java.util.PriorityQueue of boxed Pairs.
+     */
+    static long dijkstraList(ArrayList<Pair>[] adj, int start, int end) {
+        PriorityQueue<Pair> pq = new PriorityQueue<>((o1, o2) -> Long.compare(o1.c, o2.c));
+        pq.add(new Pair(start, 0));
+        long[] bestDist = new long[adj.length];
+        Arrays.fill(bestDist, INF);
+        bestDist[start] = 0;
+        Pair c;
         while (!pq.isEmpty()) {
             c = pq.poll();
             if (c.c != bestDist[c.n]) continue;
@@ -93,6 +326,8 @@ public class Dijkstra {
         // BufferedReader in = new BufferedReader(new FileReader("Dijkstra.in"));
         // PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter("Dijkstra.out")));
         new Dijkstra(in, out);
+        // new Dijkstra(new EdgeListLoader("Dijkstra.in", Runtime.getRuntime().availableProcessors()), out);
+        // benchmark(1000000, 5000000, 1000000000);
         in.close();
         out.close();
     }
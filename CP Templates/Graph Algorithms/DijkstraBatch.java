@@ -0,0 +1,102 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Answers many (source, target) shortest path queries on the same graph at once. Queries are
+ * grouped by source, and one Dijkstra.dijkstra() search is run per distinct source. If all
+ * the queries from a source share one target, the search stops as soon as it's reached;
+ * otherwise it runs to completion and answers every query from that source.
+ *
+ * The searches are spread over a ForkJoinPool with the given number of threads. Each thread
+ * owns its own bestDist array and priority queue, so there's no allocation per query.
+ *
+ * Methods:
+ * query(sources, targets) - Returns the distance for each (sources[i], targets[i]) pair
+ * (or Dijkstra.INF if there's no path).
+ * distanceMatrix(sources, targets) - Returns res[i][j] = distance from sources[i] to targets[j].
+ *
+ * Runtime: O(S * M * log(N) / threads) where S is the number of distinct sources
+ * Memory: O(threads * N + Q)
+ */
+
+public class DijkstraBatch {
+    Dijkstra dijkstra;
+    int threads;
+
+    DijkstraBatch(Dijkstra dijkstra, int threads) {
+        this.dijkstra = dijkstra;
+        this.threads = threads;
+    }
+
+    long[] query(int[] sources, int[] targets) {
+        int N = dijkstra.N, Q = sources.length;
+        long[] res = new long[Q];
+        // Counting sort the queries by source
+        int[] groupStart = new int[N + 1];
+        for (int s : sources) groupStart[s + 1]++;
+        for (int i = 0; i < N; i++) groupStart[i+1] += groupStart[i];
+        int[] order = new int[Q], pos = Arrays.copyOf(groupStart, N);
+        for (int i = 0; i < Q; i++) order[pos[sources[i]]++] = i;
+        int[] distinct = new int[N];
+        int numDistinct = 0;
+        for (int s = 0; s < N; s++) {
+            if (groupStart[s] != groupStart[s+1]) distinct[numDistinct++] = s;
+        }
+
+        final int total = numDistinct;
+        AtomicInteger next = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<Callable<Void>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(() -> {
+                    long[] bestDist = new long[N];
+                    Arrays.fill(bestDist, Dijkstra.INF);
+                    NodeQueue pq = Dijkstra.newQueue(dijkstra.queueType, dijkstra.adj);
+                    int i;
+                    while ((i = next.getAndIncrement()) < total) {
+                        int s = distinct[i], from = groupStart[s], to = groupStart[s+1];
+                        // Only one target? Then the search can stop early
+                        int end = targets[order[from]];
+                        for (int j = from + 1; j < to; j++) {
+                            if (targets[order[j]] != end) {
+                                end = -1;
+                                break;
+                            }
+                        }
+                        dijkstra.dijkstra(s, end, bestDist, pq);
+                        for (int j = from; j < to; j++) res[order[j]] = bestDist[targets[order[j]]];
+                        // Reset the buffers for the next source
+                        Arrays.fill(bestDist, Dijkstra.INF);
+                        pq.clear();
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> f : pool.invokeAll(workers)) f.get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        } finally {
+            pool.shutdown();
+        }
+        return res;
+    }
+
+    long[][] distanceMatrix(int[] sources, int[] targets) {
+        int S = sources.length, T = targets.length;
+        long size = (long) S * T;
+        if (size > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("S * T = " + size + " queries is too many, split the sources");
+        int[] qs = new int[(int) size], qt = new int[(int) size];
+        for (int i = 0; i < S; i++) {
+            for (int j = 0; j < T; j++) {
+                qs[i * T + j] = sources[i];
+                qt[i * T + j] = targets[j];
+            }
+        }
+        long[] dist = query(qs, qt);
+        long[][] res = new long[S][T];
+        for (int i = 0; i < S; i++) System.arraycopy(dist, i * T, res[i], 0, T);
+        return res;
+    }
+}
@@ -8,8 +8,11 @@ import java.util.*;
  * Modification of Dijkstra that returns the actual path of nodes taken from start to end.
  * Returns this as an int[] array (or null if no path was found).
  *
- * Note: The graph is undirected by default. To change it to directed, remove the reverse
- * edge when parsing input.
+ * Note: The graph is undirected by default. To change it to directed, pass undirected = false
+ * when building the CSRGraph.
+ *
+ * Note: This needs CSRGraph, NodeQueue, IndexedHeap, DialQueue, RadixHeap, Heuristic and
+ * EdgeListLoader from Graph Algorithms (copy those files too), but not Dijkstra.
  *
  * Input format:
  * N M
@@ -21,31 +24,65 @@ import java.util.*;
  * N is the number of nodes, M is the number of edges.
  * A -> B is an edge in the graph with cost C. (Assumes A and B are offset by +1.)
  *
- * Runtime: O(N * log(M))
+ * The priority queue is picked the same way as in Dijkstra (see queueType).
+ *
+ * Like Dijkstra, dijkstra(start, end, mode) can also run a bidirectional or an A* search
+ * (guided by the heuristic field) instead, and still returns the full path.
+ *
+ * Runtime: O(M * log(N)), or O(M + N * log(C)) with a monotone queue
  */
 
-@SuppressWarnings("unchecked")
 public class DijkstraPath {
-    final long INF = 98765432123456789L;
+    static final long INF = 98765432123456789L;
+    static final long DIAL_MAX_COST = 1 << 12;
     int N, M;
-    ArrayList<Pair>[] adj;
+    CSRGraph adj, radj;
+    QueueType queueType = QueueType.AUTO;
+    Heuristic heuristic;
+
+    enum Mode {
+        FORWARD, BIDIRECTIONAL, ASTAR
+    }
+
+    enum QueueType {
+        AUTO, DIAL, RADIX_HEAP, INDEXED_HEAP, PRIORITY_QUEUE
+    }
 
     DijkstraPath(BufferedReader in, PrintWriter out) throws IOException {
         StringTokenizer st = new StringTokenizer(in.readLine());
         N = Integer.parseInt(st.nextToken());
         M = Integer.parseInt(st.nextToken());
-        adj = new ArrayList[N];
-        for (int i = 0; i < N; i++) adj[i] = new ArrayList<>(2);
-        int a, b, c;
+        int[] a = new int[M], b = new int[M], c = new int[M];
         for (int i = 0; i < M; i++) {
             st = new StringTokenizer(in.readLine());
-            a = Integer.parseInt(st.nextToken()) - 1;
-            b = Integer.parseInt(st.nextToken()) - 1;
-            c = Integer.parseInt(st.nextToken());
-            adj[a].add(new Pair(b, c));
-            adj[b].add(new Pair(a, c));
+            a[i] = Integer.parseInt(st.nextToken()) - 1;
+            b[i] = Integer.parseInt(st.nextToken()) - 1;
+            c[i] = Integer.parseInt(st.nextToken());
         }
+        adj = new CSRGraph(N, M, a, b, c, true);
+        solve(out);
+    }
+
+    /**
+     * Same as above, but takes the edges from an EdgeListLoader (for huge input files).
+     */
+    DijkstraPath(EdgeListLoader in, PrintWriter out) {
+        N = in.N;
+        M = in.M;
+        adj = new CSRGraph(N, M, in.a, in.b, in.c, true);
+        solve(out);
+    }
 
+    /**
+     * Wraps an existing graph, without reading input (for running many queries).
+     */
+    DijkstraPath(CSRGraph adj) {
+        this.adj = adj;
+        N = adj.N;
+        M = adj.M;
+    }
+
+    void solve(PrintWriter out) {
         int[] path = dijkstra(0, N-1);
         if (path == null) out.println(-1);
         else {
@@ -57,6 +94,141 @@ public class DijkstraPath {
     }
 
     int[] dijkstra(int start, int end) {
+        if (queueType == QueueType.PRIORITY_QUEUE) return dijkstraPQ(start, end);
+        long[] bestDist = new long[N];
+        int[] from = new int[N];
+        Arrays.fill(bestDist, INF);
+        return dijkstra(start, end, bestDist, from, newQueue(queueType, adj));
+    }
+
+    static NodeQueue newQueue(QueueType type, CSRGraph adj) {
+        if (type == QueueType.AUTO) {
+            type = adj.maxCost <= DIAL_MAX_COST ? QueueType.DIAL : QueueType.RADIX_HEAP;
+        }
+        switch (type) {
+            case DIAL: return new DialQueue(adj.N, adj.maxCost);
+            case RADIX_HEAP: return new RadixHeap(adj.N);
+            default: return new IndexedHeap(adj.N);
+        }
+    }
+
+    /**
+     * Runs Dijkstra using the given buffers, so repeated searches don't have to allocate.
+     * bestDist must be filled with INF and pq must be empty. If the search stops early, pq is
+     * left non-empty (call clear()).
+     */
+    int[] dijkstra(int start, int end, long[] bestDist, int[] from, NodeQueue pq) {
+        bestDist[start] = 0;
+        from[start] = -1;
+        pq.push(start, 0);
+        while (!pq.isEmpty()) {
+            int c = pq.poll();
+            long d = bestDist[c];
+            if (c == end) return genPath(from, end);  // Path found
+            for (int e = adj.start[c]; e < adj.start[c+1]; e++) {
+                int n = adj.to[e];
+                if (d + adj.cost[e] < bestDist[n]) {
+                    bestDist[n] = d + adj.cost[e];
+                    from[n] = c;
+                    pq.push(n, bestDist[n]);
+                }
+            }
+        }
+        // No path found
+        return null;
+    }
+
+    int[] dijkstra(int start, int end, Mode mode) {
+        switch (mode) {
+            case BIDIRECTIONAL: return bidirectional(start, end);
+            case ASTAR: return aStar(start, end, heuristic);
+            default: return dijkstra(start, end);
+        }
+    }
+
+    /**
+     * See Dijkstra.bidirectional(). The path is the forward path to meetF, then the edge
+     * meetF -> meetB, then the backward path from meetB to end.
+     */
+    int[] bidirectional(int start, int end) {
+        if (start == end) return new int[] {start};
+        if (radj == null) radj = adj.reverse();
+        long[] distF = new long[N], distB = new long[N];
+        int[] fromF = new int[N], fromB = new int[N];
+        Arrays.fill(distF, INF);
+        Arrays.fill(distB, INF);
+        IndexedHeap pqF = new IndexedHeap(N), pqB = new IndexedHeap(N);
+        distF[start] = 0;
+        distB[end] = 0;
+        fromF[start] = -1;
+        fromB[end] = -1;
+        pqF.push(start, 0);
+        pqB.push(end, 0);
+        long best = INF;
+        int meetF = -1, meetB = -1;
+        while (!pqF.isEmpty() && !pqB.isEmpty()) {
+            if (pqF.peekKey() + pqB.peekKey() >= best) break;
+            boolean forward = pqF.peekKey() <= pqB.peekKey();
+            CSRGraph g = forward ? adj : radj;
+            long[] dist = forward ? distF : distB, other = forward ? distB : distF;
+            int[] from = forward ? fromF : fromB;
+            IndexedHeap pq = forward ? pqF : pqB;
+            int c = pq.poll();
+            long d = dist[c];
+            for (int e = g.start[c]; e < g.start[c+1]; e++) {
+                int n = g.to[e];
+                if (d + g.cost[e] < dist[n]) {
+                    dist[n] = d + g.cost[e];
+                    from[n] = c;
+                    pq.push(n, dist[n]);
+                }
+                if (other[n] != INF && d + g.cost[e] + other[n] < best) {
+                    best = d + g.cost[e] + other[n];
+                    meetF = forward ? c : n;
+                    meetB = forward ? n : c;
+                }
+            }
+        }
+        // No path found
+        if (best == INF) return null;
+
+        int[] first = genPath(fromF, meetF);
+        int len = first.length;
+        for (int n = meetB; n != -1; n = fromB[n]) len++;
+        int[] path = Arrays.copyOf(first, len);
+        for (int n = meetB, i = first.length; n != -1; n = fromB[n]) path[i++] = n;
+        return path;
+    }
+
+    /**
+     * See Dijkstra.aStar().
+     */
+    int[] aStar(int start, int end, Heuristic h) {
+        long[] bestDist = new long[N];
+        int[] from = new int[N];
+        Arrays.fill(bestDist, INF);
+        IndexedHeap pq = new IndexedHeap(N);
+        bestDist[start] = 0;
+        from[start] = -1;
+        pq.push(start, h.estimate(start, end));
+        while (!pq.isEmpty()) {
+            int c = pq.poll();
+            long d = bestDist[c];
+            if (c == end) return genPath(from, end);  // Path found
+            for (int e = adj.start[c]; e < adj.start[c+1]; e++) {
+                int n = adj.to[e];
+                if (d + adj.cost[e] < bestDist[n]) {
+                    bestDist[n] = d + adj.cost[e];
+                    from[n] = c;
+                    pq.push(n, bestDist[n] + h.estimate(n, end));
+                }
+            }
+        }
+        // No path found
+        return null;
+    }
+
+    int[] dijkstraPQ(int start, int end) {
         PriorityQueue<Pair> pq = new PriorityQueue<>(new Comparator<Pair>() {
             @Override
             public int compare(Pair o1, Pair o2) {
@@ -77,11 +249,12 @@ public class DijkstraPath {
             c = pq.poll();
             if (c.c != bestDist[c.n]) continue;
             if (c.n == end) return genPath(from, end);  // Path found
-            for (Pair e : adj[c.n]) {
-                if (c.c + e.c < bestDist[e.n]) {
-                    bestDist[e.n] = c.c + e.c;
-                    from[e.n] = c.n;
-                    pq.add(new Pair(e.n, bestDist[e.n]));
+            for (int e = adj.start[c.n]; e < adj.start[c.n+1]; e++) {
+                int n = adj.to[e];
+                if (c.c + adj.cost[e] < bestDist[n]) {
+                    bestDist[n] = c.c + adj.cost[e];
+                    from[n] = c.n;
+                    pq.add(new Pair(n, bestDist[n]));
                 }
             }
         }
@@ -115,6 +288,7 @@ public class DijkstraPath {
         // BufferedReader in = new BufferedReader(new FileReader("Dijkstra.in"));
         // PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter("Dijkstra.out")));
         new DijkstraPath(in, out);
+        // new DijkstraPath(new EdgeListLoader("Dijkstra.in", Runtime.getRuntime().availableProcessors()), out);
         in.close();
         out.close();
     }
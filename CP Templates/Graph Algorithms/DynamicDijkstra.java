@@ -0,0 +1,211 @@
+import java.util.*;
+
+/**
+ * Single source shortest paths that stay up to date while edges are added, removed, or have
+ * their costs changed. Changes are collected into a batch, and apply() repairs only the part of
+ * the shortest path tree that the batch affected (Ramalingam-Reps style), instead of rerunning
+ * Dijkstra from scratch:
+ * 1. Cost increases / removals: only the subtree hanging off a tree edge that got worse can
+ * get worse. Those nodes are reset, and each one gets its best distance through an in-edge
+ * from a node outside the subtree.
+ * 2. Cost decreases / insertions: if the edge now gives its target a shorter distance, the
+ * target is updated.
+ * 3. Every node changed in 1 or 2 goes into a heap, and Dijkstra runs from there until
+ * nothing else improves.
+ *
+ * bestDist and from are kept in the same form DijkstraPath uses (from[n] is the node before n
+ * on its shortest path, -1 for the source and unreachable nodes).
+ *
+ * Note: Edges are undirected if undirected = true. Edge ids are returned by addEdge(), and
+ * stay valid after removeEdge() (the id just stops being used).
+ *
+ * Methods:
+ * addEdge(a, b, c) - Adds an edge a -> b with cost c to the batch. Returns its id.
+ * setCost(e, c) - Changes the cost of edge e to c in the batch.
+ * removeEdge(e) - Removes edge e in the batch.
+ * apply() - Applies the batch. Runs in O(A * log(N)), where A is the number of edges out of
+ * nodes whose distance changed (the whole graph in the worst case).
+ * dist(n) / path(n) - Query the current distance / path from the source to n.
+ *
+ * Memory: O(N + M)
+ */
+
+public class DynamicDijkstra {
+    final long INF = Dijkstra.INF;
+    int N, source, numArcs, arcsPerEdge;
+    // Arcs (directed edges), with a linked list of out-arcs and in-arcs per node
+    int[] arcFrom, arcTo, outHead, outNext, inHead, inNext;
+    long[] arcCost, appliedCost;
+    boolean[] removed, dirty;
+    int[] changed;
+    int numChanged;
+    // Shortest path tree
+    long[] bestDist;
+    int[] from, fromArc, affected;
+    boolean[] isAffected;
+    IndexedHeap pq;
+
+    DynamicDijkstra(int N, int source, boolean undirected) {
+        this.N = N;
+        this.source = source;
+        arcsPerEdge = undirected ? 2 : 1;
+        arcFrom = new int[16];
+        arcTo = new int[16];
+        outNext = new int[16];
+        inNext = new int[16];
+        arcCost = new long[16];
+        appliedCost = new long[16];
+        removed = new boolean[16];
+        dirty = new boolean[16];
+        changed = new int[16];
+        outHead = new int[N];
+        inHead = new int[N];
+        Arrays.fill(outHead, -1);
+        Arrays.fill(inHead, -1);
+        bestDist = new long[N];
+        from = new int[N];
+        fromArc = new int[N];
+        Arrays.fill(bestDist, INF);
+        Arrays.fill(from, -1);
+        Arrays.fill(fromArc, -1);
+        bestDist[source] = 0;
+        affected = new int[N];
+        isAffected = new boolean[N];
+        pq = new IndexedHeap(N);
+    }
+
+    int addEdge(int a, int b, long c) {
+        int e = numArcs / arcsPerEdge;
+        addArc(a, b, c);
+        if (arcsPerEdge == 2) addArc(b, a, c);
+        return e;
+    }
+
+    void setCost(int e, long c) {
+        for (int arc = e * arcsPerEdge; arc < (e+1) * arcsPerEdge; arc++) {
+            if (removed[arc]) continue;
+            arcCost[arc] = c;
+            markChanged(arc);
+        }
+    }
+
+    void removeEdge(int e) {
+        for (int arc = e * arcsPerEdge; arc < (e+1) * arcsPerEdge; arc++) {
+            removed[arc] = true;
+            markChanged(arc);
+        }
+    }
+
+    long dist(int n) {
+        return bestDist[n];
+    }
+
+    /**
+     * Returns the current shortest path from the source to n (or null if there isn't one).
+     */
+    int[] path(int n) {
+        if (bestDist[n] == INF) return null;
+        int len = 0;
+        for (int c = n; c != -1; c = from[c]) len++;
+        int[] path = new int[len];
+        for (int c = n; c != -1; c = from[c]) path[--len] = c;
+        return path;
+    }
+
+    void apply() {
+        // 1. Find every node whose tree path uses an edge that got worse
+        int numAffected = 0;
+        for (int i = 0; i < numChanged; i++) {
+            int arc = changed[i], v = arcTo[arc];
+            if (fromArc[v] == arc && (removed[arc] || arcCost[arc] > appliedCost[arc]) && !isAffected[v]) {
+                isAffected[v] = true;
+                affected[numAffected++] = v;
+            }
+        }
+        // The rest of the subtree (BFS over tree edges)
+        for (int i = 0; i < numAffected; i++) {
+            int u = affected[i];
+            for (int arc = outHead[u]; arc != -1; arc = outNext[arc]) {
+                int v = arcTo[arc];
+                if (fromArc[v] == arc && !isAffected[v]) {
+                    isAffected[v] = true;
+                    affected[numAffected++] = v;
+                }
+            }
+        }
+        for (int i = 0; i < numAffected; i++) {
+            int v = affected[i];
+            bestDist[v] = INF;
+            from[v] = -1;
+            fromArc[v] = -1;
+        }
+        // Best way back into each affected node from outside the subtree
+        for (int i = 0; i < numAffected; i++) {
+            int v = affected[i];
+            for (int arc = inHead[v]; arc != -1; arc = inNext[arc]) {
+                int u = arcFrom[arc];
+                if (removed[arc] || isAffected[u] || bestDist[u] == INF) continue;
+                relax(arc);
+            }
+        }
+        for (int i = 0; i < numAffected; i++) isAffected[affected[i]] = false;
+
+        // 2. Edges that got better
+        for (int i = 0; i < numChanged; i++) {
+            int arc = changed[i];
+            if (!removed[arc] && bestDist[arcFrom[arc]] != INF) relax(arc);
+            appliedCost[arc] = arcCost[arc];
+            dirty[arc] = false;
+        }
+        numChanged = 0;
+
+        // 3. Dijkstra from every node that changed
+        while (!pq.isEmpty()) {
+            int u = pq.poll();
+            for (int arc = outHead[u]; arc != -1; arc = outNext[arc]) {
+                if (!removed[arc]) relax(arc);
+            }
+        }
+    }
+
+    void relax(int arc) {
+        int u = arcFrom[arc], v = arcTo[arc];
+        if (bestDist[u] + arcCost[arc] < bestDist[v]) {
+            bestDist[v] = bestDist[u] + arcCost[arc];
+            from[v] = u;
+            fromArc[v] = arc;
+            pq.push(v, bestDist[v]);
+        }
+    }
+
+    void addArc(int a, int b, long c) {
+        if (numArcs == arcFrom.length) {
+            int size = numArcs * 2;
+            arcFrom = Arrays.copyOf(arcFrom, size);
+            arcTo = Arrays.copyOf(arcTo, size);
+            outNext = Arrays.copyOf(outNext, size);
+            inNext = Arrays.copyOf(inNext, size);
+            arcCost = Arrays.copyOf(arcCost, size);
+            appliedCost = Arrays.copyOf(appliedCost, size);
+            removed = Arrays.copyOf(removed, size);
+            dirty = Arrays.copyOf(dirty, size);
+        }
+        int arc = numArcs++;
+        arcFrom[arc] = a;
+        arcTo[arc] = b;
+        arcCost[arc] = c;
+        appliedCost[arc] = c;
+        outNext[arc] = outHead[a];
+        outHead[a] = arc;
+        inNext[arc] = inHead[b];
+        inHead[b] = arc;
+        markChanged(arc);
+    }
+
+    void markChanged(int arc) {
+        if (dirty[arc]) return;
+        dirty[arc] = true;
+        if (numChanged == changed.length) changed = Arrays.copyOf(changed, numChanged * 2);
+        changed[numChanged++] = arc;
+    }
+}
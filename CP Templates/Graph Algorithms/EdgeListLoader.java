@@ -0,0 +1,159 @@
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Fast multi-threaded loader for huge edge list files. The file is memory-mapped and split
+ * into chunks on line boundaries, and each chunk is parsed in parallel straight into the
+ * a[], b[] and c[] arrays (no String or StringTokenizer per line).
+ *
+ * Parsing is done in two passes: the first pass counts the edge lines in each chunk, so that
+ * every chunk knows where its edges go in the arrays, and the second pass parses them.
+ *
+ * Input format (same as the Dijkstra templates):
+ * N M
+ * A1 B1 C1
+ * A2 B2 C2
+ * ...
+ * An Bn Cn
+ *
+ * A and B are converted to 0-indexed (-1) while parsing, so the arrays can be passed directly
+ * to CSRGraph or the Dijkstra constructors. Blank lines are ignored.
+ *
+ * Runtime: O(file size / threads)
+ * Memory: O(M)
+ */
+
+public class EdgeListLoader {
+    // Lines can't be longer than this (only matters at chunk boundaries)
+    static final int MAX_LINE = 1 << 16;
+    // Keeps each mapping under the 2GB limit of a MappedByteBuffer
+    static final long MAX_CHUNK = 1 << 30;
+
+    int N, M;
+    int[] a, b, c;
+
+    EdgeListLoader(String file, int threads) throws IOException {
+        try (FileChannel ch = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+            long size = ch.size();
+            long dataStart = readHeader(ch, size);
+            a = new int[M];
+            b = new int[M];
+            c = new int[M];
+
+            // Split into chunks; each chunk parses the lines that start inside it
+            long len = size - dataStart;
+            int chunks = (int) Math.max(1, Math.min(threads * 4L, len / MAX_LINE));
+            chunks = (int) Math.max(chunks, (len + MAX_CHUNK - 1) / MAX_CHUNK);
+            long[] bound = new long[chunks + 1];
+            for (int i = 0; i <= chunks; i++) bound[i] = dataStart + len * i / chunks;
+
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                // Pass 1: Count edges per chunk
+                int[] offset = new int[chunks + 1];
+                List<Callable<Integer>> tasks = new ArrayList<>();
+                for (int i = 0; i < chunks; i++) {
+                    final int ci = i;
+                    tasks.add(() -> parseChunk(ch, size, dataStart, bound[ci], bound[ci+1], -1));
+                }
+                List<Future<Integer>> counts = pool.invokeAll(tasks);
+                for (int i = 0; i < chunks; i++) offset[i+1] = offset[i] + counts.get(i).get();
+                if (offset[chunks] != M) {
+                    throw new IOException("Expected " + M + " edges but found " + offset[chunks]);
+                }
+
+                // Pass 2: Parse edges into the arrays
+                tasks.clear();
+                for (int i = 0; i < chunks; i++) {
+                    final int ci = i;
+                    tasks.add(() -> parseChunk(ch, size, dataStart, bound[ci], bound[ci+1], offset[ci]));
+                }
+                for (Future<Integer> f : pool.invokeAll(tasks)) f.get();
+            } catch (InterruptedException | ExecutionException e) {
+                if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+                throw new IOException(e);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Parses "N M" from the first line. Returns the position right after it.
+     */
+    long readHeader(FileChannel ch, long size) throws IOException {
+        MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, MAX_LINE));
+        int p = 0, lim = buf.limit();
+        long[] vals = new long[2];
+        for (int k = 0; k < 2; k++) {
+            while (p < lim && !isDigit(buf.get(p))) p++;
+            if (p == lim) throw new IOException("Missing N M header");
+            while (p < lim && isDigit(buf.get(p))) vals[k] = vals[k] * 10 + (buf.get(p++) - '0');
+        }
+        while (p < lim && buf.get(p) != '\n') p++;
+        N = (int) vals[0];
+        M = (int) vals[1];
+        return Math.min(size, p + 1);
+    }
+
+    /**
+     * Handles every line that starts in [from, to). If offset == -1, only counts the edge
+     * lines; otherwise, parses them into the arrays starting at index offset.
+     */
+    int parseChunk(FileChannel ch, long size, long dataStart, long from, long to, int offset)
+            throws IOException {
+        if (from >= to) return 0;
+        // Map one extra byte in front (to check for a line start) and one line past the end
+        long mapStart = Math.max(dataStart, from - 1);
+        long mapEnd = Math.min(size, to + MAX_LINE);
+        MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+        int p = (int) (from - mapStart), end = (int) (to - mapStart), lim = buf.limit();
+        // Skip the partial line owned by the previous chunk
+        if (from > dataStart && buf.get(p - 1) != '\n') {
+            while (p < lim && buf.get(p) != '\n') p++;
+            p++;
+        }
+
+        int count = 0, idx = offset;
+        while (p < end) {
+            // Find the end of this line
+            int q = p;
+            boolean hasDigit = false;
+            while (q < lim && buf.get(q) != '\n') {
+                if (isDigit(buf.get(q))) hasDigit = true;
+                q++;
+            }
+            if (q == lim && mapEnd != size) throw new IOException("Line longer than " + MAX_LINE);
+            if (hasDigit) {
+                if (offset != -1) {
+                    // Parse the 3 numbers on this line
+                    int r = p;
+                    for (int k = 0; k < 3; k++) {
+                        while (r < q && !isDigit(buf.get(r)) && buf.get(r) != '-') r++;
+                        if (r == q) throw new IOException("Expected 3 numbers on edge line");
+                        boolean neg = buf.get(r) == '-';
+                        if (neg) r++;
+                        int v = 0;
+                        while (r < q && isDigit(buf.get(r))) v = v * 10 + (buf.get(r++) - '0');
+                        if (neg) v = -v;
+                        if (k == 0) a[idx] = v - 1;
+                        else if (k == 1) b[idx] = v - 1;
+                        else c[idx] = v;
+                    }
+                    idx++;
+                }
+                count++;
+            }
+            p = q + 1;
+        }
+        return count;
+    }
+
+    static boolean isDigit(byte x) {
+        return x >= '0' && x <= '9';
+    }
+}
@@ -0,0 +1,188 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * All-pairs shortest paths for dense graphs, using a cache-blocked (tiled) Floyd-Warshall on the
+ * same int[][] adj matrix as DijkstraMatrix. The matrix is cut into B x B tiles, and for each
+ * block of B intermediate nodes k:
+ * 1. The diagonal tile (k, k) is updated on its own.
+ * 2. The tiles in row k and column k are updated (they only depend on tile (k, k)).
+ * 3. Every other tile (i, j) is updated (it only depends on tiles (i, k) and (k, j)).
+ * Each tile fits in cache, and the tiles in steps 2 and 3 are independent, so they're spread
+ * over a ForkJoinPool.
+ *
+ * Note: The graph is undirected by default. To change it to directed, remove the reverse
+ * edge when parsing input.
+ *
+ * Input format:
+ * N M
+ * A1 B1 C1
+ * A2 B2 C2
+ * ...
+ * An Bn Cn
+ *
+ * N is the number of nodes, M is the number of edges.
+ * A -> B is an edge in the graph with cost C. (Assumes A and B are offset by +1.)
+ *
+ * Output: N lines with N numbers each, the shortest distance from node i to node j (or -1 if
+ * there's no path).
+ *
+ * Runtime: O(N^3 / threads)
+ * Memory: O(N^2)
+ */
+
+public class FloydWarshall {
+    final int INF = 987654321;
+    static final int B = 64;
+    int N, M;
+    int[][] adj;
+
+    FloydWarshall(BufferedReader in, PrintWriter out) throws IOException {
+        StringTokenizer st = new StringTokenizer(in.readLine());
+        N = Integer.parseInt(st.nextToken());
+        M = Integer.parseInt(st.nextToken());
+        adj = new int[N][N];
+        for (int i = 0; i < N; i++) {
+            Arrays.fill(adj[i], INF);
+            adj[i][i] = 0;
+        }
+        int a, b, c;
+        for (int i = 0; i < M; i++) {
+            st = new StringTokenizer(in.readLine());
+            a = Integer.parseInt(st.nextToken()) - 1;
+            b = Integer.parseInt(st.nextToken()) - 1;
+            c = Integer.parseInt(st.nextToken());
+            adj[a][b] = Math.min(c, adj[a][b]);
+            adj[b][a] = Math.min(c, adj[b][a]);
+        }
+
+        allPairs(Runtime.getRuntime().availableProcessors());
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) {
+                if (j != 0) out.print(' ');
+                out.print(adj[i][j] == INF ? -1 : adj[i][j]);
+            }
+            out.println();
+        }
+    }
+
+    /**
+     * Wraps an existing matrix without reading input (ex: the adj of a DijkstraMatrix built with
+     * new DijkstraMatrix(N, false)). allPairs() then works on it in place.
+     */
+    FloydWarshall(int[][] adj) {
+        this.adj = adj;
+        N = adj.length;
+    }
+
+    /**
+     * Turns adj into the all-pairs shortest path matrix, in place.
+     */
+    void allPairs(int threads) {
+        int[][] dist = adj;
+        int blocks = (N + B - 1) / B;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (int kb = 0; kb < blocks; kb++) {
+                final int k = kb;
+                updateTile(dist, k, k, k);
+                List<Callable<Void>> tasks = new ArrayList<>();
+                for (int b = 0; b < blocks; b++) {
+                    if (b == k) continue;
+                    final int o = b;
+                    tasks.add(() -> {
+                        updateTile(dist, k, o, k);
+                        return null;
+                    });
+                    tasks.add(() -> {
+                        updateTile(dist, o, k, k);
+                        return null;
+                    });
+                }
+                runAll(pool, tasks);
+                tasks.clear();
+                for (int ib = 0; ib < blocks; ib++) {
+                    if (ib == k) continue;
+                    final int i = ib;
+                    tasks.add(() -> {
+                        for (int jb = 0; jb < blocks; jb++) {
+                            if (jb != k) updateTile(dist, i, jb, k);
+                        }
+                        return null;
+                    });
+                }
+                runAll(pool, tasks);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    void runAll(ForkJoinPool pool, List<Callable<Void>> tasks) {
+        try {
+            for (Future<Void> f : pool.invokeAll(tasks)) f.get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Relaxes tile (ib, jb) through every intermediate node in block kb.
+     */
+    void updateTile(int[][] dist, int ib, int jb, int kb) {
+        int iEnd = Math.min(ib * B + B, N), jStart = jb * B, jEnd = Math.min(jb * B + B, N);
+        int kEnd = Math.min(kb * B + B, N);
+        for (int k = kb * B; k < kEnd; k++) {
+            int[] rowK = dist[k];
+            for (int i = ib * B; i < iEnd; i++) {
+                int[] rowI = dist[i];
+                int dik = rowI[k];
+                if (dik >= INF) continue;
+                for (int j = jStart; j < jEnd; j++) {
+                    rowI[j] = Math.min(dik + rowK[j], rowI[j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Times allPairs() against N calls of DijkstraMatrix.dijkstra() on random dense graphs.
+     */
+    static void benchmark(int threads, int... sizes) {
+        Random random = new Random(1);
+        for (int N : sizes) {
+            DijkstraMatrix dm = new DijkstraMatrix(N, false);
+            for (int a = 0; a < N; a++) {
+                for (int b = a + 1; b < N; b++) {
+                    int c = random.nextInt(1000000) + 1;
+                    dm.addEdge(a, b, c);
+                    dm.addEdge(b, a, c);
+                }
+            }
+            long startTime = System.currentTimeMillis();
+            int[][] expected = new int[N][N];
+            for (int i = 0; i < N; i++) dm.dijkstra(i, -1, expected[i]);
+            long dijkstraTime = System.currentTimeMillis() - startTime;
+
+            int[][] dist = new int[N][];
+            for (int i = 0; i < N; i++) dist[i] = dm.adj[i].clone();
+            startTime = System.currentTimeMillis();
+            new FloydWarshall(dist).allPairs(threads);
+            long fwTime = System.currentTimeMillis() - startTime;
+            System.out.printf("N = %d: N x DijkstraMatrix %d ms, blocked Floyd-Warshall %d ms (%s)\n",
+                    N, dijkstraTime, fwTime, Arrays.deepEquals(dist, expected) ? "same" : "DIFFERENT");
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+        PrintWriter out = new PrintWriter(new BufferedOutputStream(System.out));
+        // BufferedReader in = new BufferedReader(new FileReader("FloydWarshall.in"));
+        // PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter("FloydWarshall.out")));
+        new FloydWarshall(in, out);
+        // benchmark(Runtime.getRuntime().availableProcessors(), 500, 1000, 2000);
+        in.close();
+        out.close();
+    }
+}
@@ -0,0 +1,11 @@
+/**
+ * Heuristic for A* searches (see Dijkstra.Mode.ASTAR). estimate(n, end) must never be more
+ * than the real shortest distance from n to end (admissible). For A* to settle each node only
+ * once, it should also be consistent: estimate(u, end) <= cost(u, v) + estimate(v, end).
+ *
+ * Landmarks (ALT) is a good general-purpose heuristic that satisfies both.
+ */
+
+public interface Heuristic {
+    long estimate(int n, int end);
+}
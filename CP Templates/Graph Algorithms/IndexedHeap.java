@@ -0,0 +1,106 @@
+import java.util.*;
+
+/**
+ * Indexed binary min-heap over the nodes 0 to N-1, keyed by a long. Each node is in the heap
+ * at most once, so it never holds more than N entries, and push() on a node that's already in
+ * the heap does a real decrease-key instead of adding a stale copy. Everything is stored in
+ * parallel primitive arrays, so no objects are allocated after construction.
+ *
+ * Methods:
+ * push(n, k) - Inserts node n with key k, or lowers its key to k if it's already in the heap.
+ * Runs in O(log(N)).
+ * poll() - Removes and returns the node with the smallest key. Runs in O(log(N)).
+ * peekKey() - Returns the smallest key in the heap. Runs in O(1).
+ * key(n) - Returns the key of node n (only valid while n is in the heap, or right after it
+ * was polled). Runs in O(1).
+ * clear() - Empties the heap so it can be reused. Runs in O(size).
+ *
+ * Memory: O(N)
+ */
+
+public class IndexedHeap implements NodeQueue {
+    int size;
+    int[] heap, pos;
+    long[] key;
+
+    IndexedHeap(int N) {
+        heap = new int[N];
+        pos = new int[N];
+        key = new long[N];
+        Arrays.fill(pos, -1);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean contains(int n) {
+        return pos[n] != -1;
+    }
+
+    long key(int n) {
+        return key[n];
+    }
+
+    @Override
+    public void push(int n, long k) {
+        if (pos[n] == -1) {
+            heap[size] = n;
+            pos[n] = size++;
+        } else if (k >= key[n]) return;
+        key[n] = k;
+        siftUp(pos[n]);
+    }
+
+    long peekKey() {
+        return key[heap[0]];
+    }
+
+    @Override
+    public int poll() {
+        int res = heap[0];
+        pos[res] = -1;
+        if (--size > 0) {
+            heap[0] = heap[size];
+            pos[heap[0]] = 0;
+            siftDown(0);
+        }
+        return res;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) pos[heap[i]] = -1;
+        size = 0;
+    }
+
+    void siftUp(int i) {
+        int n = heap[i];
+        long k = key[n];
+        while (i > 0) {
+            int p = (i-1) / 2;
+            if (key[heap[p]] <= k) break;
+            heap[i] = heap[p];
+            pos[heap[i]] = i;
+            i = p;
+        }
+        heap[i] = n;
+        pos[n] = i;
+    }
+
+    void siftDown(int i) {
+        int n = heap[i];
+        long k = key[n];
+        while (i*2+1 < size) {
+            int c = i*2+1;
+            if (c+1 < size && key[heap[c+1]] < key[heap[c]]) c++;
+            if (key[heap[c]] >= k) break;
+            heap[i] = heap[c];
+            pos[heap[i]] = i;
+            i = c;
+        }
+        heap[i] = n;
+        pos[n] = i;
+    }
+}
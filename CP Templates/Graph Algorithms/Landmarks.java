@@ -0,0 +1,76 @@
+import java.util.*;
+
+/**
+ * ALT (A*, Landmarks, Triangle inequality) heuristic. Picks K landmark nodes and runs a full
+ * Dijkstra to and from each of them. By the triangle inequality, for every landmark L:
+ * dist(n, end) >= dist(L, end) - dist(L, n)
+ * dist(n, end) >= dist(n, L) - dist(end, L)
+ * so the best of these bounds is an admissible and consistent estimate for A*.
+ *
+ * Landmarks are picked with the farthest-first rule: each new landmark is the node farthest
+ * from all the landmarks picked so far, which tends to place them around the edge of the graph.
+ *
+ * Methods:
+ * estimate(n, end) - Returns a lower bound on the distance from n to end. Runs in O(K).
+ *
+ * Runtime: O(K * M * log(N)) to precompute
+ * Memory: O(K * N)
+ */
+
+public class Landmarks implements Heuristic {
+    int N, K;
+    int[] landmarks;
+    // Distances from / to each landmark, stored as [n * K + i] so estimate() reads one block
+    long[] fromL, toL;
+
+    Landmarks(CSRGraph adj, int K) {
+        N = adj.N;
+        this.K = K = Math.min(K, N);
+        landmarks = new int[K];
+        long size = (long) N * K;
+        if (size > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("N * K = " + size + " is too big, use a smaller K");
+        fromL = new long[(int) size];
+        toL = new long[(int) size];
+        Dijkstra forward = new Dijkstra(adj);
+        Dijkstra backward = adj.undirected ? forward : new Dijkstra(adj.reverse());
+        long[] bestDist = new long[N];
+        long[] minDist = new long[N];
+        Arrays.fill(minDist, Dijkstra.INF);
+        NodeQueue pq = Dijkstra.newQueue(Dijkstra.QueueType.AUTO, adj);
+
+        int next = 0;
+        for (int i = 0; i < K; i++) {
+            landmarks[i] = next;
+            Arrays.fill(bestDist, Dijkstra.INF);
+            forward.dijkstra(next, -1, bestDist, pq);
+            for (int n = 0; n < N; n++) {
+                fromL[n * K + i] = bestDist[n];
+                minDist[n] = Math.min(bestDist[n], minDist[n]);
+            }
+            if (backward != forward) {
+                Arrays.fill(bestDist, Dijkstra.INF);
+                backward.dijkstra(next, -1, bestDist, pq);
+            }
+            for (int n = 0; n < N; n++) toL[n * K + i] = bestDist[n];
+
+            // Next landmark: farthest reachable node from the current ones
+            // (an unreached node starts a new component, which is even better)
+            next = 0;
+            for (int n = 1; n < N; n++) {
+                if (minDist[n] > minDist[next]) next = n;
+            }
+        }
+    }
+
+    @Override
+    public long estimate(int n, int end) {
+        long res = 0;
+        for (int i = 0; i < K; i++) {
+            long le = fromL[end * K + i], ln = fromL[n * K + i];
+            if (le != Dijkstra.INF && ln != Dijkstra.INF) res = Math.max(le - ln, res);
+            long nl = toL[n * K + i], el = toL[end * K + i];
+            if (nl != Dijkstra.INF && el != Dijkstra.INF) res = Math.max(nl - el, res);
+        }
+        return res;
+    }
+}
@@ -0,0 +1,19 @@
+/**
+ * Priority queue of nodes 0 to N-1 keyed by distance, as used by Dijkstra. push() on a node
+ * that's already in the queue lowers its key (decrease-key), so a node is never in the queue
+ * twice.
+ *
+ * Implementations: IndexedHeap (works for any keys), DialQueue and RadixHeap (monotone
+ * queues: keys pushed must never be smaller than the last key polled, which is always true
+ * for Dijkstra with non-negative integer costs).
+ */
+
+public interface NodeQueue {
+    boolean isEmpty();
+
+    void push(int n, long k);
+
+    int poll();
+
+    void clear();
+}
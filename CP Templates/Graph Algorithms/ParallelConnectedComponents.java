@@ -0,0 +1,178 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Parallel connected components over an edge list that's fully known upfront (ex: from
+ * EdgeListLoader). The edges are split into one range per thread, and every thread unions its
+ * edges straight into one shared parent array:
+ * - Roots are only linked with a CAS, always from the larger id to the smaller one, so no
+ * locks are needed and no cycles can form (if the CAS fails, the roots are found again).
+ * - find() does path halving with a CAS, and just moves on if the CAS fails.
+ * Once every edge is in, a second parallel pass points every node straight at its root.
+ *
+ * Since the larger root always goes under the smaller one, every root is the smallest id in
+ * its component, so the labels don't depend on the order the threads ran in.
+ *
+ * Methods:
+ * components(M, a, b) - Returns the component label (smallest node id in the component) of
+ * every node, given the edges a[i] - b[i] (0-indexed).
+ *
+ * Runtime: O(M * alpha(N) / threads) in practice
+ * Memory: O(N)
+ */
+
+public class ParallelConnectedComponents {
+    static final VarHandle PARENT = MethodHandles.arrayElementVarHandle(int[].class);
+
+    int N, threads;
+    ForkJoinPool pool;
+
+    ParallelConnectedComponents(int N, int threads) {
+        this.N = N;
+        this.threads = threads;
+        if (threads > 1) pool = new ForkJoinPool(threads);
+    }
+
+    int[] components(int M, int[] a, int[] b) {
+        int[] parent = new int[N];
+        runParallel(N, (from, to) -> {
+            for (int i = from; i < to; i++) parent[i] = i;
+        });
+        runParallel(M, (from, to) -> {
+            for (int e = from; e < to; e++) union(parent, a[e], b[e]);
+        });
+        // Every union is done, so the roots won't change anymore
+        runParallel(N, (from, to) -> {
+            for (int i = from; i < to; i++) parent[i] = find(parent, i);
+        });
+        return parent;
+    }
+
+    static void union(int[] parent, int a, int b) {
+        while (true) {
+            a = find(parent, a);
+            b = find(parent, b);
+            if (a == b) return;
+            if (a < b) {
+                int temp = a;
+                a = b;
+                b = temp;
+            }
+            if (PARENT.compareAndSet(parent, a, a, b)) return;
+        }
+    }
+
+    static int find(int[] parent, int n) {
+        while (true) {
+            int p = (int) PARENT.getAcquire(parent, n);
+            if (p == n) return n;
+            int g = (int) PARENT.getAcquire(parent, p);
+            if (g == p) return p;
+            // Path halving
+            PARENT.compareAndSet(parent, n, p, g);
+            n = g;
+        }
+    }
+
+    interface RangeTask {
+        void run(int from, int to);
+    }
+
+    /**
+     * Splits [0, size) into one range per thread, and runs task on each.
+     */
+    void runParallel(int size, RangeTask task) {
+        if (pool == null) {
+            task.run(0, size);
+            return;
+        }
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int from = (int) ((long) size * t / threads), to = (int) ((long) size * (t+1) / threads);
+            tasks.add(() -> {
+                task.run(from, to);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> f : pool.invokeAll(tasks)) f.get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    void shutdown() {
+        if (pool != null) pool.shutdown();
+    }
+
+    /**
+     * Times components() on a random graph for 1, 2, 4, ... maxThreads threads, against
+     * a sequential union-find (the same one as DisjointSet, inlined so this file compiles on its
+     * own) called in a loop, and checks that the partitions match.
+     */
+    static void benchmark(int N, int M, int maxThreads) {
+        System.out.printf("Connected components on N = %d, M = %d\n", N, M);
+        Random random = new Random(1);
+        int[] a = new int[M], b = new int[M];
+        for (int i = 0; i < M; i++) {
+            a[i] = random.nextInt(N);
+            b[i] = random.nextInt(N);
+        }
+
+        long startTime = System.currentTimeMillis();
+        // Union by size, with path compression (roots hold -size)
+        int[] vals = new int[N];
+        Arrays.fill(vals, -1);
+        for (int i = 0; i < M; i++) {
+            int setA = sequentialFind(vals, a[i]), setB = sequentialFind(vals, b[i]);
+            if (setA == setB) continue;
+            if (vals[setA] > vals[setB]) {
+                int temp = setA;
+                setA = setB;
+                setB = temp;
+            }
+            vals[setA] += vals[setB];
+            vals[setB] = setA;
+        }
+        int[] expected = new int[N];
+        for (int i = 0; i < N; i++) expected[i] = sequentialFind(vals, i);
+        System.out.printf("Sequential union-find: %.3f seconds\n", (System.currentTimeMillis() - startTime) / 1000f);
+        // Relabel with the smallest id in each component, to compare with components()
+        int[] minId = new int[N];
+        Arrays.fill(minId, -1);
+        for (int i = 0; i < N; i++) {
+            if (minId[expected[i]] == -1) minId[expected[i]] = i;
+            expected[i] = minId[expected[i]];
+        }
+        vals = null;
+        minId = null;
+
+        for (int t = 1; t <= maxThreads; t *= 2) {
+            ParallelConnectedComponents pcc = new ParallelConnectedComponents(N, t);
+            startTime = System.currentTimeMillis();
+            int[] labels = pcc.components(M, a, b);
+            float time = (System.currentTimeMillis() - startTime) / 1000f;
+            pcc.shutdown();
+            System.out.printf("%d thread(s): %.3f seconds (%s)\n", t, time,
+                    Arrays.equals(labels, expected) ? "correct" : "WRONG");
+        }
+    }
+
+    static int sequentialFind(int[] vals, int i) {
+        int root = i;
+        while (vals[root] >= 0) root = vals[root];
+        while (i != root) {
+            int next = vals[i];
+            vals[i] = root;
+            i = next;
+        }
+        return root;
+    }
+
+    public static void main(String[] args) {
+        // 10^8 edges takes about 1 GB for the edge arrays, so run with something like -Xmx3g
+        benchmark(10000000, 100000000, Runtime.getRuntime().availableProcessors());
+    }
+}
@@ -0,0 +1,100 @@
+import java.util.*;
+
+/**
+ * Radix heap, a monotone priority queue for non-negative integer keys. Bucket i holds the
+ * nodes whose key first differs from the last polled key at bit i - 1 (bucket 0 holds keys
+ * equal to it). When bucket 0 runs out, the first non-empty bucket is split up around its
+ * smallest key; every node can only move to lower buckets, so it's moved at most 64 times.
+ * Buckets are doubly linked lists in primitive arrays, so decrease-key doesn't allocate.
+ *
+ * Methods:
+ * push(n, k) - Inserts node n with key k, or lowers its key to k. Runs in O(1).
+ * poll() - Removes and returns a node with the smallest key. Runs in amortized O(log(C))
+ * where C is the largest edge cost.
+ * clear() - Empties the queue so it can be reused. Runs in O(size).
+ *
+ * Memory: O(N)
+ */
+
+public class RadixHeap implements NodeQueue {
+    int size;
+    long last;
+    int[] head = new int[65], next, prev, bucket;
+    long[] key;
+
+    RadixHeap(int N) {
+        Arrays.fill(head, -1);
+        next = new int[N];
+        prev = new int[N];
+        bucket = new int[N];
+        key = new long[N];
+        Arrays.fill(bucket, -1);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void push(int n, long k) {
+        if (bucket[n] != -1) {
+            if (k >= key[n]) return;
+            unlink(n);
+        } else {
+            // Starting over (ex: after clear()) with a smaller key
+            if (size == 0 && k < last) last = k;
+            size++;
+        }
+        key[n] = k;
+        link(n);
+    }
+
+    @Override
+    public int poll() {
+        if (head[0] == -1) {
+            int i = 1;
+            while (head[i] == -1) i++;
+            // Split up bucket i around its smallest key
+            long min = Long.MAX_VALUE;
+            for (int n = head[i]; n != -1; n = next[n]) min = Math.min(key[n], min);
+            last = min;
+            int n = head[i];
+            head[i] = -1;
+            while (n != -1) {
+                int nxt = next[n];
+                link(n);
+                n = nxt;
+            }
+        }
+        int n = head[0];
+        unlink(n);
+        bucket[n] = -1;
+        size--;
+        return n;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < 65; i++) {
+            for (int n = head[i]; n != -1; n = next[n]) bucket[n] = -1;
+            head[i] = -1;
+        }
+        size = 0;
+    }
+
+    void link(int n) {
+        int b = key[n] == last ? 0 : 64 - Long.numberOfLeadingZeros(key[n] ^ last);
+        bucket[n] = b;
+        prev[n] = -1;
+        next[n] = head[b];
+        if (head[b] != -1) prev[head[b]] = n;
+        head[b] = n;
+    }
+
+    void unlink(int n) {
+        if (prev[n] != -1) next[prev[n]] = next[n];
+        else head[bucket[n]] = next[n];
+        if (next[n] != -1) prev[next[n]] = prev[n];
+    }
+}
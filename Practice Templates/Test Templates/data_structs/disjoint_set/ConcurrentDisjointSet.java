@@ -0,0 +1,152 @@
+package data_structs.disjoint_set;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A disjoint set that can be used from many threads at once, without any locks.
+ * parents holds the parent of every element (roots are their own parent). Roots are only
+ * ever linked with a compareAndSet, and always from the larger index to the smaller one
+ * (union by index), so two threads can never link roots into a cycle. If the CAS fails,
+ * another thread changed that root first, so union just finds the roots again and retries.
+ * find() does path halving: each element on the path is pointed at its grandparent with a
+ * CAS. A failed CAS there is fine (someone else already shortened the path), so find never
+ * waits on another thread.
+ */
+public class ConcurrentDisjointSet {
+	AtomicIntegerArray parents;
+	int size;
+	
+	public ConcurrentDisjointSet(int size) {
+		this.size = size;
+		parents = new AtomicIntegerArray(size);
+		for (int i = 0; i < size; i++) {
+			parents.set(i, i);
+		}
+	}
+	
+	/**
+	 * Unions the two elements by combining their sets (if not already combined).
+	 * @param a - The first element to union.
+	 * @param b - The second element to union.
+	 * @return Whether or not this call merged the two sets. If they were already in the same
+	 * set (maybe because another thread merged them first), false will be returned.
+	 */
+	public boolean union(int a, int b) {
+		while (true) {
+			a = find(a);
+			b = find(b);
+			if (a == b) return false;
+			// Link the root with the larger index under the one with the smaller index
+			if (a < b) {
+				int temp = a;
+				a = b;
+				b = temp;
+			}
+			if (parents.compareAndSet(a, a, b)) return true;
+		}
+	}
+	
+	/**
+	 * Finds the set that the given element is in. Under concurrent unions, the returned root
+	 * was the root of n's set at some point during the call.
+	 * @param n - The element to find.
+	 * @return The set # that n is in.
+	 */
+	public int find(int n) {
+		while (true) {
+			int parent = parents.get(n);
+			if (parent == n) return n;
+			int grandparent = parents.get(parent);
+			if (grandparent == parent) return parent;
+			// Path halving
+			parents.compareAndSet(n, parent, grandparent);
+			n = grandparent;
+		}
+	}
+	
+	/**
+	 * Checks whether two elements are in the same set, even while other threads are doing
+	 * unions.
+	 * @param a - The first element.
+	 * @param b - The second element.
+	 * @return Whether a and b are in the same set.
+	 */
+	public boolean sameSet(int a, int b) {
+		while (true) {
+			a = find(a);
+			b = find(b);
+			if (a == b) return true;
+			// a is still a root, so the two sets really were different at this point
+			if (parents.get(a) == a) return false;
+		}
+	}
+	
+	/**
+	 * Tester programs
+	 */
+	public static void automaticTest(int size, int ops, float rand, int threads) {
+		System.out.printf("Doing %d operations on a concurrent disjoint set of size %d with %d threads\n", ops, size, threads);
+		System.out.printf("Approximately %d%% of the operations will be union\n", (int) (rand * 100 + 0.5));
+		long seed = new Random().nextLong();
+		ConcurrentDisjointSet set = new ConcurrentDisjointSet(size);
+		long startTime = System.currentTimeMillis();
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			final int thread = t;
+			tasks.add(() -> {
+				// Each thread makes its own operations, so they can be replayed afterwards
+				Random random = new Random(seed + thread);
+				int threadOps = ops / threads + (thread < ops % threads ? 1 : 0);
+				for (int i = 0; i < threadOps; i++) {
+					if (random.nextFloat() < rand) set.union(random.nextInt(size), random.nextInt(size));
+					else set.find(random.nextInt(size));
+				}
+				return null;
+			});
+		}
+		try {
+			for (Future<Void> f : pool.invokeAll(tasks)) f.get();
+		} catch (InterruptedException | ExecutionException e) {
+			throw new RuntimeException(e);
+		} finally {
+			pool.shutdown();
+		}
+		System.out.printf("Concurrent: done in %.3f seconds\n", (System.currentTimeMillis() - startTime) / 1000f);
+		
+		// Replay the same unions on the normal DisjointSet
+		startTime = System.currentTimeMillis();
+		DisjointSet expected = new DisjointSet(size);
+		for (int t = 0; t < threads; t++) {
+			Random random = new Random(seed + t);
+			int threadOps = ops / threads + (t < ops % threads ? 1 : 0);
+			for (int i = 0; i < threadOps; i++) {
+				if (random.nextFloat() < rand) expected.union(random.nextInt(size), random.nextInt(size));
+				else expected.find(random.nextInt(size));
+			}
+		}
+		System.out.printf("Sequential: done in %.3f seconds\n", (System.currentTimeMillis() - startTime) / 1000f);
+		
+		// The partitions match if the roots map one to one
+		int[] toConcurrent = new int[size], toExpected = new int[size];
+		Arrays.fill(toConcurrent, -1);
+		Arrays.fill(toExpected, -1);
+		boolean same = true;
+		for (int i = 0; i < size && same; i++) {
+			int e = expected.find(i), c = set.find(i);
+			if (toConcurrent[e] == -1) toConcurrent[e] = c;
+			if (toExpected[c] == -1) toExpected[c] = e;
+			same = toConcurrent[e] == c && toExpected[c] == e;
+		}
+		System.out.println(same ? "Same partition as the sequential disjoint set\n\n" : "DIFFERENT partition!\n\n");
+	}
+	
+	public static void main(String[] args) {
+		int threads = Runtime.getRuntime().availableProcessors();
+		automaticTest(5000000, 25000000, 0.9f, 1);
+		automaticTest(5000000, 25000000, 0.9f, threads);
+		automaticTest(5000000, 25000000, 0.9f, threads * 2);
+	}
+}
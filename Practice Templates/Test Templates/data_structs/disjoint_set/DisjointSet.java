@@ -7,14 +7,31 @@ import java.util.*;
  * Negative numbers in the elements array represent the # of nodes under
  * that element's set tree, and they also mark that element as the root of a tree.
  * Positive numbers represent the parent of the element in the set tree.
+ * find() is iterative and allocates nothing. The way it compresses paths can be picked per
+ * instance (see Compression).
  */
 public class DisjointSet {
 	int[] elements;
 	int size;
+	Compression compression;
+	
+	/**
+	 * FULL - Two passes: find the root, then point every element on the path at it.
+	 * HALVING - One pass: point every other element on the path at its grandparent.
+	 * SPLITTING - One pass: point every element on the path at its grandparent.
+	 */
+	public enum Compression {
+		FULL, HALVING, SPLITTING
+	}
 	
 	public DisjointSet(int size) {
+		this(size, Compression.FULL);
+	}
+	
+	public DisjointSet(int size, Compression compression) {
 		elements = new int[size];
 		this.size = size;
+		this.compression = compression;
 		for (int i = 0; i < size; i++) {
 			elements[i] = -1;
 		}
@@ -55,19 +72,34 @@ public class DisjointSet {
 	 * @return The set # that n is in.
 	 */
 	public int find(int n) {
-		// Keep track of all found elements to perform tree compression
-		Stack<Integer> foundElements = new Stack<Integer>();
-		while (elements[n] >= 0) {
-			foundElements.add(n);
-			n = elements[n];
-		}
-		
-		// Perform tree compression
-		while (!foundElements.isEmpty()) {
-			elements[foundElements.pop()] = n;
+		int next;
+		switch (compression) {
+		case HALVING:
+			while (elements[n] >= 0) {
+				if (elements[elements[n]] >= 0) elements[n] = elements[elements[n]];
+				n = elements[n];
+			}
+			return n;
+		case SPLITTING:
+			while (elements[n] >= 0) {
+				next = elements[n];
+				if (elements[next] >= 0) elements[n] = elements[next];
+				n = next;
+			}
+			return n;
+		default:
+			// Find the root first, then perform tree compression on a second pass
+			int root = n;
+			while (elements[root] >= 0) {
+				root = elements[root];
+			}
+			while (n != root) {
+				next = elements[n];
+				elements[n] = root;
+				n = next;
+			}
+			return root;
 		}
-		
-		return n;
 	}
 	
 	/**
@@ -105,11 +137,16 @@ public class DisjointSet {
 	}
 	
 	public static void automaticTest(int size, int ops, float rand, boolean randOn) {
+		automaticTest(size, ops, rand, randOn, Compression.FULL);
+	}
+	
+	public static void automaticTest(int size, int ops, float rand, boolean randOn, Compression compression) {
 		long startTime = System.currentTimeMillis();
 		System.out.printf("Doing %d operations on a disjoint set of size %d\n", ops, size);
 		System.out.printf("Approximately %d%% of the operations will be union\n", (int) (rand * 100 + 0.5));
 		System.out.println("Using random: " + randOn);
-		DisjointSet set = new DisjointSet(size);
+		System.out.println("Path compression: " + compression);
+		DisjointSet set = new DisjointSet(size, compression);
 		Random random = new Random();
 		if (randOn) {
 			for (int i = 0; i < ops; i++) {
@@ -163,7 +200,10 @@ public class DisjointSet {
 	}
 	
 	public static void main(String[] args) {
-		automaticTest(5000000, 25000000, 0.9f, true);
-		automaticTest(5000000, 25000000, 0.9f, false);
+		// Benchmark every path compression strategy on the same workloads
+		for (Compression compression : Compression.values()) {
+			automaticTest(5000000, 25000000, 0.9f, true, compression);
+			automaticTest(5000000, 25000000, 0.9f, false, compression);
+		}
 	}
 }
\ No newline at end of file
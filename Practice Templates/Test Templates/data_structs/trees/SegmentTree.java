@@ -2,23 +2,27 @@ package data_structs.trees;
 
 import java.util.*;
 
+/**
+ * Segment tree with deltaing (range update, range query).
+ *
+ * Node bounds aren't stored: they're passed down (and split in half) during each descent, so
+ * the only per-node data is the value and the pending delta. Those two sit next to each other
+ * in one array (node n's value is at data[n*2], its delta at data[n*2+1]), so visiting a node
+ * touches one cache line instead of four. The tree needs no recursive init either, just one
+ * Arrays.fill(), so it works for N in the tens of millions.
+ */
 class SegmentTree {
-    private int size, MAX_SIZE;
-    private int[] lb, ub, delta;
-    public int[] vals;
+    private int size;
+    public int[] data;
     // Set this based on the operation that you're doing
     private final int NULL_VAL = 0;
 
     SegmentTree(int size) {
         this.size = size;
-        this.MAX_SIZE = size * 4 + 1;
-        lb = new int[MAX_SIZE];
-        ub = new int[MAX_SIZE];
-        delta = new int[MAX_SIZE];
-        vals = new int[MAX_SIZE];
-        Arrays.fill(delta, NULL_VAL);
-        Arrays.fill(vals, NULL_VAL);
-        initTree(1, 0, size-1);
+        // Nodes are numbered 1..2L-1, where L is the smallest power of 2 >= size
+        int leaves = Integer.highestOneBit(Math.max(size - 1, 1)) * 2;
+        data = new int[leaves * 4];
+        Arrays.fill(data, NULL_VAL);
     }
 
     // Update this based on what operation you're doing
@@ -27,64 +31,57 @@ class SegmentTree {
     }
 
     public void update(int lower, int upper, int value) {
-        update(1, lower, upper, value);
+        update(1, 0, size - 1, lower, upper, value);
     }
 
-    private int update(int node, int lower, int upper, int value) {
-        if (lb[node] > upper || ub[node] < lower) return NULL_VAL;  // Out of range
-        else if (lb[node] >= lower && ub[node] <= upper) {
+    private int update(int node, int lb, int ub, int lower, int upper, int value) {
+        if (lb > upper || ub < lower) {
+            // Out of range, so this node's value doesn't change
+            return calcValue(data[node * 2], data[node * 2 + 1]);
+        } else if (lb >= lower && ub <= upper) {
             // Completely in range
-            delta[node] = calcValue(delta[node], value);
-            return calcValue(vals[node], delta[node]);
+            data[node * 2 + 1] = calcValue(data[node * 2 + 1], value);
+            return calcValue(data[node * 2], data[node * 2 + 1]);
         }
 
         // Propagate changes
         propagate(node);
 
         // Recurse
-        int leftVal = update(node * 2, lower, upper, value);
-        int rightVal = update(node * 2 + 1, lower, upper, value);
+        int mid = (lb + ub) / 2;
+        int leftVal = update(node * 2, lb, mid, lower, upper, value);
+        int rightVal = update(node * 2 + 1, mid + 1, ub, lower, upper, value);
 
         // Update this node's value
-        vals[node] = calcValue(leftVal, rightVal);
-        return vals[node];
+        data[node * 2] = calcValue(leftVal, rightVal);
+        return data[node * 2];
     }
 
     public int query(int lower, int upper) {
-        return query(1, lower, upper);
+        return query(1, 0, size - 1, lower, upper);
     }
 
-    private int query(int node, int lower, int upper) {
-        if (lb[node] > upper || ub[node] < lower) return NULL_VAL;  // Out of range
-        else if (lb[node] >= lower && ub[node] <= upper) {
+    private int query(int node, int lb, int ub, int lower, int upper) {
+        if (lb > upper || ub < lower) return NULL_VAL;  // Out of range
+        else if (lb >= lower && ub <= upper) {
             // Completely in range
-            return calcValue(vals[node], delta[node]);
+            return calcValue(data[node * 2], data[node * 2 + 1]);
         }
 
         // Propagate changes
         propagate(node);
 
-        // Recurse
-        int childrenVal = calcValue(query(node * 2, lower, upper), query(node * 2 + 1, lower, upper));
-        return calcValue(vals[node], childrenVal);
+        // Recurse (only the children, since this node's value covers indexes outside the range)
+        int mid = (lb + ub) / 2;
+        return calcValue(query(node * 2, lb, mid, lower, upper), query(node * 2 + 1, mid + 1, ub, lower, upper));
     }
 
     private void propagate(int node) {
-        vals[node] = calcValue(vals[node], delta[node]);
-        if (lb[node] != ub[node]) {
-            delta[node * 2] = calcValue(delta[node * 2], delta[node]);
-            delta[node *2 + 1] = calcValue(delta[node * 2 + 1], delta[node]);
-        }
-        delta[node] = NULL_VAL;
-    }
-
-    private void initTree(int node, int lower, int upper) {
-        lb[node] = lower;
-        ub[node] = upper;
-        if (lower != upper) {
-            // Recursively init lower nodes
-            initTree(node * 2, lower, (lower + upper) / 2);
-            initTree(node * 2 + 1, (lower + upper) / 2 + 1, upper);
-        }
+        int delta = data[node * 2 + 1];
+        data[node * 2] = calcValue(data[node * 2], delta);
+        // Only called on nodes that have children
+        data[node * 4 + 1] = calcValue(data[node * 4 + 1], delta);
+        data[node * 4 + 3] = calcValue(data[node * 4 + 3], delta);
+        data[node * 2 + 1] = NULL_VAL;
     }
 }
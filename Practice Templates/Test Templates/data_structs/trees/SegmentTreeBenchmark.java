@@ -0,0 +1,148 @@
+package data_structs.trees;
+
+import java.util.*;
+
+/**
+ * Compares SegmentTree against its old layout (LegacySegmentTree: separate lb, ub, delta and
+ * vals arrays of size 4N+1, filled by a recursive initTree). Both trees get the same random
+ * updates and queries, and the results are checked against each other.
+ *
+ * There's no JMH here, so this does a few untimed warmup rounds first to let the JIT compile
+ * everything, then reports the best of the timed rounds.
+ */
+public class SegmentTreeBenchmark {
+    interface Tree {
+        void update(int lower, int upper, int value);
+        int query(int lower, int upper);
+    }
+
+    /**
+     * Runs ops random operations (half updates, half queries) and returns a checksum of the
+     * query results.
+     */
+    static long run(Tree tree, int size, int ops, long seed) {
+        Random random = new Random(seed);
+        long checksum = 0;
+        for (int i = 0; i < ops; i++) {
+            int a = random.nextInt(size), b = random.nextInt(size);
+            int lower = Math.min(a, b), upper = Math.max(a, b);
+            if (random.nextBoolean()) tree.update(lower, upper, -random.nextInt(1000000));
+            else checksum = checksum * 31 + tree.query(lower, upper);
+        }
+        return checksum;
+    }
+
+    public static void benchmark(int size, int ops, int warmups, int rounds) {
+        System.out.printf("Segment tree of size %d, %d operations per round\n", size, ops);
+        long[] checksums = new long[2];
+        for (int t = 0; t < 2; t++) {
+            long bestTime = Long.MAX_VALUE, initTime = 0;
+            for (int r = -warmups; r < rounds; r++) {
+                long startTime = System.nanoTime();
+                Tree tree;
+                if (t == 0) {
+                    LegacySegmentTree legacy = new LegacySegmentTree(size);
+                    tree = new Tree() {
+                        public void update(int lower, int upper, int value) { legacy.update(lower, upper, value); }
+                        public int query(int lower, int upper) { return legacy.query(lower, upper); }
+                    };
+                } else {
+                    SegmentTree current = new SegmentTree(size);
+                    tree = new Tree() {
+                        public void update(int lower, int upper, int value) { current.update(lower, upper, value); }
+                        public int query(int lower, int upper) { return current.query(lower, upper); }
+                    };
+                }
+                if (r >= 0) initTime = System.nanoTime() - startTime;
+                startTime = System.nanoTime();
+                checksums[t] = run(tree, size, ops, r);
+                if (r >= 0) bestTime = Math.min(bestTime, System.nanoTime() - startTime);
+            }
+            System.out.printf("%s: init %.3f ms, %.1f ns per operation\n", t == 0 ? "Legacy layout" : "New layout",
+                    initTime / 1e6, (double) bestTime / ops);
+        }
+        System.out.println(checksums[0] == checksums[1] ? "Same results\n" : "DIFFERENT results\n");
+    }
+
+    public static void main(String[] args) {
+        benchmark(1 << 16, 1000000, 3, 5);
+        benchmark(1 << 20, 1000000, 3, 5);
+        benchmark(1 << 22, 1000000, 3, 5);
+    }
+}
+
+/**
+ * The old SegmentTree layout, kept only for the benchmark. The two out-of-range bugs in the
+ * old version (update() returning NULL_VAL, query() mixing in the node's whole value) are
+ * fixed here too, so the results can be compared.
+ */
+class LegacySegmentTree {
+    private int size, MAX_SIZE;
+    private int[] lb, ub, delta;
+    public int[] vals;
+    private final int NULL_VAL = 0;
+
+    LegacySegmentTree(int size) {
+        this.size = size;
+        this.MAX_SIZE = size * 4 + 1;
+        lb = new int[MAX_SIZE];
+        ub = new int[MAX_SIZE];
+        delta = new int[MAX_SIZE];
+        vals = new int[MAX_SIZE];
+        Arrays.fill(delta, NULL_VAL);
+        Arrays.fill(vals, NULL_VAL);
+        initTree(1, 0, size-1);
+    }
+
+    private int calcValue(int a, int b) {
+        return Math.min(a, b);
+    }
+
+    public void update(int lower, int upper, int value) {
+        update(1, lower, upper, value);
+    }
+
+    private int update(int node, int lower, int upper, int value) {
+        if (lb[node] > upper || ub[node] < lower) return calcValue(vals[node], delta[node]);
+        else if (lb[node] >= lower && ub[node] <= upper) {
+            delta[node] = calcValue(delta[node], value);
+            return calcValue(vals[node], delta[node]);
+        }
+        propagate(node);
+        int leftVal = update(node * 2, lower, upper, value);
+        int rightVal = update(node * 2 + 1, lower, upper, value);
+        vals[node] = calcValue(leftVal, rightVal);
+        return vals[node];
+    }
+
+    public int query(int lower, int upper) {
+        return query(1, lower, upper);
+    }
+
+    private int query(int node, int lower, int upper) {
+        if (lb[node] > upper || ub[node] < lower) return NULL_VAL;
+        else if (lb[node] >= lower && ub[node] <= upper) {
+            return calcValue(vals[node], delta[node]);
+        }
+        propagate(node);
+        return calcValue(query(node * 2, lower, upper), query(node * 2 + 1, lower, upper));
+    }
+
+    private void propagate(int node) {
+        vals[node] = calcValue(vals[node], delta[node]);
+        if (lb[node] != ub[node]) {
+            delta[node * 2] = calcValue(delta[node * 2], delta[node]);
+            delta[node *2 + 1] = calcValue(delta[node * 2 + 1], delta[node]);
+        }
+        delta[node] = NULL_VAL;
+    }
+
+    private void initTree(int node, int lower, int upper) {
+        lb[node] = lower;
+        ub[node] = upper;
+        if (lower != upper) {
+            initTree(node * 2, lower, (lower + upper) / 2);
+            initTree(node * 2 + 1, (lower + upper) / 2 + 1, upper);
+        }
+    }
+}